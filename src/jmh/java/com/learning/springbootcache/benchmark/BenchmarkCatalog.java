@@ -0,0 +1,79 @@
+package com.learning.springbootcache.benchmark;
+
+import com.learning.springbootcache.cache.CarCacheInvalidator;
+import com.learning.springbootcache.cache.InvalidationBus;
+import com.learning.springbootcache.config.CacheConfig;
+import com.learning.springbootcache.dto.Car;
+import com.learning.springbootcache.repository.CarRepository;
+import com.learning.springbootcache.repository.ColumnarCarRepository;
+import com.learning.springbootcache.repository.IndexedCarRepository;
+import com.learning.springbootcache.service.CarService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * Spring context with the real cache configuration and a catalog of generated cars, so benchmarks go through
+ * the same cache proxies as the application.
+ * <p>
+ * Cars are spread evenly over {@link #BRANDS} brands named Brand0..Brand99 and priced uniformly between
+ * {@link #MIN_PRICE} and {@link #MAX_PRICE}. The seed is fixed so every run builds the same catalog.
+ */
+final class BenchmarkCatalog implements AutoCloseable {
+
+    static final int BRANDS = 100;
+
+    static final double MIN_PRICE = 5_000d;
+
+    static final double MAX_PRICE = 205_000d;
+
+    private final AnnotationConfigApplicationContext context;
+
+    /**
+     * @param backend app.catalog.backend, indexed or columnar
+     */
+    BenchmarkCatalog(final int size, final String backend) {
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment()
+               .getPropertySources()
+               .addFirst(new MapPropertySource("benchmark", Map.of("app.catalog.backend", backend)));
+        context.register(CacheConfig.class, IndexedCarRepository.class, ColumnarCarRepository.class,
+                CarCacheInvalidator.class, InvalidationBus.class, CarService.class);
+        context.refresh();
+        final CarRepository repository = context.getBean(CarRepository.class);
+        final SplittableRandom random = new SplittableRandom(42);
+        for (int i = repository.count(); i < size; i++) {
+            repository.save(randomCar(random, i));
+        }
+    }
+
+    static Car randomCar(final SplittableRandom random, final int index) {
+        return new Car(null,
+                "Model" + index % 1_000,
+                brand(index % BRANDS),
+                random.nextInt(60, 600),
+                random.nextDouble(MIN_PRICE, MAX_PRICE));
+    }
+
+    static String brand(final int index) {
+        return "Brand" + index;
+    }
+
+    CarService carService() {
+        return context.getBean(CarService.class);
+    }
+
+    Cache cache(final String cacheManager, final String cacheName) {
+        return Objects.requireNonNull(context.getBean(cacheManager, CacheManager.class).getCache(cacheName));
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
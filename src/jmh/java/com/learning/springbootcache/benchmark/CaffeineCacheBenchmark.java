@@ -0,0 +1,86 @@
+package com.learning.springbootcache.benchmark;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw get/put cost of a Spring CaffeineCache built the way CacheConfig builds it, without the cache proxy.
+ * Keys are drawn from twice the cache size, so about half of the gets miss once the cache is full.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="CaffeineCacheBenchmark -t 4"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaffeineCacheBenchmark {
+
+    private static final int KEYS = 1 << 16;
+
+    @Param({ "10", "1000", "100000" })
+    public int maximumSize;
+
+    private Cache cache;
+
+    private final String[] keys = new String[KEYS];
+
+    private final Object value = new Object();
+
+    @State(Scope.Thread)
+    public static class KeyCursor {
+
+        private int next = new SplittableRandom().nextInt(KEYS);
+
+        int next(final int bound) {
+            next = (next + 1) & (KEYS - 1);
+            return next % bound;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        cache = new CaffeineCache("benchmarkCache",
+                Caffeine.newBuilder()
+                        .expireAfterWrite(10, TimeUnit.MINUTES)
+                        .maximumSize(maximumSize)
+                        .build());
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = BenchmarkCatalog.brand(i);
+        }
+        for (int i = 0; i < maximumSize; i++) {
+            cache.put(keys[i], value);
+        }
+    }
+
+    @Benchmark
+    public Object getHit(final KeyCursor cursor) {
+        return cache.get(keys[cursor.next(Math.min(maximumSize, KEYS))]);
+    }
+
+    @Benchmark
+    public Object getMixed(final KeyCursor cursor) {
+        return cache.get(keys[cursor.next(Math.min(2 * maximumSize, KEYS))]);
+    }
+
+    @Benchmark
+    public void put(final KeyCursor cursor) {
+        cache.put(keys[cursor.next(KEYS)], value);
+    }
+}
@@ -0,0 +1,171 @@
+package com.learning.springbootcache.benchmark;
+
+import com.learning.springbootcache.cache.PriceRange;
+import com.learning.springbootcache.dto.Car;
+import com.learning.springbootcache.service.CarService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CarService through its Spring cache proxies, across catalog sizes and configured hit rates.
+ * <p>
+ * A miss is forced by evicting the hot key right before the call, so the configured hit rate is exact for one
+ * thread. With several threads an eviction by one thread also turns the next call of the others into a miss, so
+ * the effective hit rate is somewhat lower. Run with -t to pick the thread count, e.g.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="CarServiceBenchmark -t 4 -p catalogSize=100000"
+ * <p>
+ * backend selects the catalog, app.catalog.backend, misses at a low hit rate show the cost of its filters.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CarServiceBenchmark {
+
+    private static final int PATTERN_LENGTH = 1 << 10;
+
+    @State(Scope.Benchmark)
+    public static class Catalog {
+
+        @Param({ "10", "1000", "100000", "1000000" })
+        public int catalogSize;
+
+        @Param({ "indexed", "columnar" })
+        public String backend;
+
+        BenchmarkCatalog catalog;
+
+        CarService carService;
+
+        Cache brandCache;
+
+        Cache priceCache;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            catalog = new BenchmarkCatalog(catalogSize, backend);
+            carService = catalog.carService();
+            brandCache = catalog.cache("brandFilterCacheManager", "brandFilterCache");
+            priceCache = catalog.cache("priceFilterCacheManager", "priceFilterCache");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            catalog.close();
+        }
+    }
+
+    /**
+     * Per-thread hit/miss pattern drawn once from the configured hit rate.
+     */
+    @State(Scope.Thread)
+    public static class Requests {
+
+        @Param({ "0.0", "0.5", "0.9", "0.99" })
+        public double hitRate;
+
+        final String brand = BenchmarkCatalog.brand(7);
+
+        final Double minPrice = 50_000d;
+
+        final Double maxPrice = 52_000d;
+
+        final PriceRange priceRange = new PriceRange(minPrice, maxPrice);
+
+        private final boolean[] hits = new boolean[PATTERN_LENGTH];
+
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            final SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+            for (int i = 0; i < hits.length; i++) {
+                hits[i] = random.nextDouble() < hitRate;
+            }
+        }
+
+        boolean nextIsHit() {
+            next = (next + 1) & (PATTERN_LENGTH - 1);
+            return hits[next];
+        }
+    }
+
+    /**
+     * Fresh catalog every iteration so repeated creates do not grow it without bound.
+     */
+    @State(Scope.Benchmark)
+    public static class WritableCatalog {
+
+        @Param({ "10", "1000", "100000", "1000000" })
+        public int catalogSize;
+
+        @Param({ "indexed", "columnar" })
+        public String backend;
+
+        BenchmarkCatalog catalog;
+
+        CarService carService;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            catalog = new BenchmarkCatalog(catalogSize, backend);
+            carService = catalog.carService();
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            catalog.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+
+        private final SplittableRandom random = new SplittableRandom();
+
+        private int index;
+
+        Car nextCar() {
+            return BenchmarkCatalog.randomCar(random, index++);
+        }
+    }
+
+    @Benchmark
+    public List<Car> priceFilter(final Catalog catalog, final Requests requests) {
+        if (!requests.nextIsHit()) {
+            catalog.priceCache.evict(requests.priceRange);
+        }
+        return catalog.carService.getCarsWithPriceFilter(requests.minPrice, requests.maxPrice);
+    }
+
+    @Benchmark
+    public List<Car> brandFilter(final Catalog catalog, final Requests requests) {
+        if (!requests.nextIsHit()) {
+            catalog.brandCache.evict(requests.brand);
+        }
+        return catalog.carService.getCarsWithBrandFilter(requests.brand);
+    }
+
+    @Benchmark
+    public Car create(final WritableCatalog catalog, final Writer writer) {
+        return catalog.carService.create(writer.nextCar());
+    }
+}
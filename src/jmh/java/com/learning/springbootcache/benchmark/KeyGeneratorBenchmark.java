@@ -0,0 +1,95 @@
+package com.learning.springbootcache.benchmark;
+
+import com.learning.springbootcache.service.CarService;
+import com.learning.springbootcache.util.CompactKeyGenerator;
+import com.learning.springbootcache.util.KeyGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Key building cost of the legacy string key generator against {@link CompactKeyGenerator}, for the parameter lists
+ * of the price and brand page methods. No cache uses the keyGenerator bean, the page caches have BrandPageKey and
+ * PricePageKey keys, so this measures what a cache keyed by its whole parameter list would pay. The lookup
+ * benchmarks add the hash map probe a cache hit pays on top of building the key.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="KeyGenerator -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyGeneratorBenchmark {
+
+    private static final KeyGenerator LEGACY =
+            (target, method, params) -> target + method.getName() + Arrays.toString(params);
+
+    @Param({ "legacy", "compact" })
+    public String generator;
+
+    private KeyGenerator keyGenerator;
+
+    private final Object target = new Object();
+
+    private Method priceMethod;
+
+    private Method brandMethod;
+
+    private final Double minPrice = 18_000d;
+
+    private final Double maxPrice = 20_000d;
+
+    private final String brand = "Opel";
+
+    private final String cursor = null;
+
+    private final int limit = 50;
+
+    private final Map<Object, Object> cache = new ConcurrentHashMap<>();
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        keyGenerator = "legacy".equals(generator) ? LEGACY : new CompactKeyGenerator();
+        priceMethod = CarService.class.getMethod("getCarsWithPriceFilterPage", Double.class, Double.class,
+                String.class, int.class);
+        brandMethod = CarService.class.getMethod("getCarsWithBrandFilterPage", String.class, String.class, int.class);
+        cache.put(keyGenerator.generate(target, priceMethod, minPrice, maxPrice, cursor, limit), Boolean.TRUE);
+        cache.put(keyGenerator.generate(target, brandMethod, brand, cursor, limit), Boolean.TRUE);
+    }
+
+    @Benchmark
+    public Object priceKey() {
+        return keyGenerator.generate(target, priceMethod, minPrice, maxPrice, cursor, limit);
+    }
+
+    @Benchmark
+    public Object brandKey() {
+        return keyGenerator.generate(target, brandMethod, brand, cursor, limit);
+    }
+
+    @Benchmark
+    public Object priceLookup() {
+        return cache.get(keyGenerator.generate(target, priceMethod, minPrice, maxPrice, cursor, limit));
+    }
+
+    @Benchmark
+    public Object brandLookup() {
+        return cache.get(keyGenerator.generate(target, brandMethod, brand, cursor, limit));
+    }
+}
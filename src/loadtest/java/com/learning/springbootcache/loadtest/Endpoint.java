@@ -0,0 +1,33 @@
+package com.learning.springbootcache.loadtest;
+
+/**
+ * The CarController calls a load test mixes, with the cache whose hit rate stands for the endpoint's.
+ */
+enum Endpoint {
+
+    PRICE("price", "priceFilterCache"),
+    BRAND("brand", "brandFilterCache"),
+    PRICE_PAGE("pricePage", "pricePageCache"),
+    BRAND_PAGE("brandPage", "brandPageCache"),
+    CREATE("create", null),
+    EVICT("evict", null),
+    UPDATE("update", null);
+
+    final String label;
+
+    final String cacheName;
+
+    Endpoint(final String label, final String cacheName) {
+        this.label = label;
+        this.cacheName = cacheName;
+    }
+
+    static Endpoint byName(final String label) {
+        for (final Endpoint endpoint : values()) {
+            if (endpoint.label.equals(label)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint " + label);
+    }
+}
@@ -0,0 +1,239 @@
+package com.learning.springbootcache.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for a running application, see {@link LoadTestOptions} for the knobs.
+ * <p>
+ * Requests are started on a fixed schedule, Poisson or uniform at the configured rate, whether or not earlier
+ * ones have been answered, and a response time is measured from the time the request was scheduled to start. A
+ * stalled server therefore shows up in the percentiles of every request it delayed instead of only the one it
+ * stalled on (no coordinated omission). The time from the actual send is kept separately as the service time.
+ * <p>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--rate=500 --duration=60s"
+ */
+public final class LoadTest {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private final LoadTestOptions options;
+
+    private final Workload workload;
+
+    private final HttpClient client;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private int maxInFlight;
+
+    LoadTest(final LoadTestOptions options) {
+        this.options = options;
+        this.workload = new Workload(options);
+        this.client = HttpClient.newBuilder()
+                                .version(HttpClient.Version.HTTP_1_1)
+                                .connectTimeout(options.timeout)
+                                .build();
+        for (final Endpoint endpoint : options.mix.keySet()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final boolean passed = new LoadTest(LoadTestOptions.parse(args)).run(System.out);
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * @return false when a request failed or an endpoint's p99 is above --max-p99
+     */
+    boolean run(final PrintStream out) throws IOException, InterruptedException {
+        seedCatalog(out);
+        out.printf("Running %.1f requests/s (%s) for %ss after a %ss warm-up against %s%n", options.rate,
+                options.poisson ? "poisson" : "uniform", options.duration.toSeconds(), options.warmup.toSeconds(),
+                options.url);
+
+        final SplittableRandom arrivals = new SplittableRandom(options.seed + 1);
+        final long start = System.nanoTime();
+        final long measureStart = start + options.warmup.toNanos();
+        final long end = measureStart + options.duration.toNanos();
+        final double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        CompletableFuture<Map<String, long[]>> statisticsBefore = null;
+        double offsetNanos = 0;
+        for (long intended = start; intended < end; intended = start + (long) offsetNanos) {
+            if (statisticsBefore == null && intended >= measureStart) {
+                statisticsBefore = cacheStatistics();
+            }
+            for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            send(workload.next(), intended, intended >= measureStart);
+            offsetNanos += options.poisson ? -Math.log(1 - arrivals.nextDouble()) * meanGapNanos : meanGapNanos;
+        }
+        final long drainDeadline = System.nanoTime() + options.timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+
+        final Map<String, long[]> before = statisticsBefore == null ? Map.of() : statisticsBefore.join();
+        report(out, before, cacheStatistics().join());
+        writeHistograms();
+        return check(out);
+    }
+
+    private void seedCatalog(final PrintStream out) throws IOException, InterruptedException {
+        for (int i = 0; i < options.seedCars; i++) {
+            final HttpResponse<Void> response =
+                    client.send(workload.seedCar(i), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                throw new IllegalStateException("Seeding the catalog failed with HTTP " + response.statusCode());
+            }
+        }
+        out.printf("Seeded %d cars over %d brands%n", options.seedCars, options.brands);
+    }
+
+    private void send(final Workload.Operation operation, final long intended, final boolean measured) {
+        maxInFlight = Math.max(maxInFlight, inFlight.incrementAndGet());
+        final long sent = System.nanoTime();
+        client.sendAsync(operation.request(), HttpResponse.BodyHandlers.discarding())
+              .whenComplete((response, failure) -> {
+                  final long done = System.nanoTime();
+                  inFlight.decrementAndGet();
+                  if (measured) {
+                      stats.get(operation.endpoint())
+                           .record(done - intended, done - sent, failure == null && response.statusCode() < 400);
+                  }
+              });
+    }
+
+    /**
+     * Hit and miss counts per cache from GET /cars/cache-stats, the run reports the difference over the
+     * measured window.
+     */
+    private CompletableFuture<Map<String, long[]>> cacheStatistics() {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(options.url + "/cars/cache-stats"))
+                                               .timeout(options.timeout)
+                                               .GET()
+                                               .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            final Map<String, long[]> counts = new HashMap<>();
+            try {
+                for (final JsonNode cache : objectMapper.readTree(response.body())) {
+                    counts.put(cache.path("cache").asText(),
+                            new long[] { cache.path("hitCount").asLong(), cache.path("missCount").asLong() });
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return counts;
+        });
+    }
+
+    private void report(final PrintStream out, final Map<String, long[]> before, final Map<String, long[]> after) {
+        final double seconds = options.duration.toNanos() / 1e9;
+        out.printf("Max in flight %d, response times in ms from the scheduled start, svc p99 from the actual send%n",
+                maxInFlight);
+        out.printf("%-10s %9s %7s %9s %8s %8s %8s %8s %8s %8s %6s%n", "endpoint", "count", "errors", "req/s",
+                "p50", "p90", "p99", "p99.9", "max", "svc p99", "hit %");
+        for (final Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            final Histogram responseTime = entry.getValue().responseTime;
+            out.printf("%-10s %9d %7d %9.1f", entry.getKey().label, responseTime.getTotalCount(),
+                    entry.getValue().errors.sum(), responseTime.getTotalCount() / seconds);
+            for (final double percentile : PERCENTILES) {
+                out.printf(" %8.2f", millis(responseTime.getValueAtPercentile(percentile)));
+            }
+            out.printf(" %8.2f %8.2f %6s%n", millis(responseTime.getMaxValue()),
+                    millis(entry.getValue().serviceTime.getValueAtPercentile(99)),
+                    hitRate(entry.getKey().cacheName, before, after));
+        }
+    }
+
+    private static String hitRate(final String cacheName, final Map<String, long[]> before,
+            final Map<String, long[]> after) {
+        if (cacheName == null || !after.containsKey(cacheName)) {
+            return "-";
+        }
+        final long[] start = before.getOrDefault(cacheName, new long[2]);
+        final long hits = after.get(cacheName)[0] - start[0];
+        final long lookups = hits + after.get(cacheName)[1] - start[1];
+        return lookups <= 0 ? "-" : String.format("%.1f", 100d * hits / lookups);
+    }
+
+    private void writeHistograms() throws IOException {
+        if (options.hgrmDir == null) {
+            return;
+        }
+        Files.createDirectories(options.hgrmDir);
+        for (final Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            try (PrintStream file = new PrintStream(
+                    Files.newOutputStream(options.hgrmDir.resolve(entry.getKey().label + ".hgrm")))) {
+                entry.getValue().responseTime.outputPercentileDistribution(file, 1000.0);
+            }
+        }
+    }
+
+    private boolean check(final PrintStream out) {
+        boolean passed = true;
+        for (final Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            final long errors = entry.getValue().errors.sum();
+            if (errors > 0) {
+                out.printf("FAILED: %s had %d failed requests%n", entry.getKey().label, errors);
+                passed = false;
+            }
+            final long p99 = entry.getValue().responseTime.getValueAtPercentile(99);
+            if (options.maxP99 != null && p99 > options.maxP99.toNanos() / 1_000) {
+                out.printf("FAILED: %s p99 %.2f ms is above %d ms%n", entry.getKey().label, millis(p99),
+                        options.maxP99.toMillis());
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    private static double millis(final long micros) {
+        return micros / 1000d;
+    }
+
+    private static final class EndpointStats {
+
+        final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+        final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+        final LongAdder errors = new LongAdder();
+
+        void record(final long responseNanos, final long serviceNanos, final boolean succeeded) {
+            responseTime.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(responseNanos), HIGHEST_TRACKABLE_MICROS));
+            serviceTime.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(serviceNanos), HIGHEST_TRACKABLE_MICROS));
+            if (!succeeded) {
+                errors.increment();
+            }
+        }
+    }
+}
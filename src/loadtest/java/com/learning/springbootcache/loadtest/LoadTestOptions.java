@@ -0,0 +1,144 @@
+package com.learning.springbootcache.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line of {@link LoadTest}, every option is --name=value and durations use the application.yaml syntax,
+ * e.g. --rate=500 --duration=2m --mix=price=50,brand=50.
+ */
+final class LoadTestOptions {
+
+    URI url = URI.create("http://localhost:9098/springboot-cache");
+
+    /**
+     * Requests started per second, independent of how fast the application answers.
+     */
+    double rate = 200;
+
+    /**
+     * poisson spaces requests by exponential gaps, uniform by exactly 1 / rate.
+     */
+    boolean poisson = true;
+
+    Duration warmup = Duration.ofSeconds(10);
+
+    Duration duration = Duration.ofSeconds(60);
+
+    Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * Cars created before the run, spread evenly over the brands.
+     */
+    int seedCars = 2_000;
+
+    int brands = 100;
+
+    /**
+     * Zipf exponent of the brand picked by a request, 0 is uniform, higher concentrates traffic on Brand0.
+     */
+    double zipfExponent = 1.0;
+
+    double minPrice = 5_000;
+
+    double maxPrice = 205_000;
+
+    /**
+     * Widest price window of a price request, each request picks its width uniformly up to it.
+     */
+    double priceWindow = 10_000;
+
+    /**
+     * Price bounds are rounded to multiples of it, so windows repeat and some price requests can hit the cache.
+     */
+    double priceStep = 500;
+
+    int pageLimit = 50;
+
+    long seed = 42;
+
+    Map<Endpoint, Integer> mix = parseMix("price=40,brand=40,pricePage=5,brandPage=5,create=2,evict=4,update=4");
+
+    /**
+     * Directory for one HdrHistogram percentile distribution per endpoint, none when not set.
+     */
+    Path hgrmDir;
+
+    /**
+     * Fails the run, exit status 1, when any endpoint's p99 response time is above it.
+     */
+    Duration maxP99;
+
+    static LoadTestOptions parse(final String[] args) {
+        final Map<String, String> values = new HashMap<>();
+        for (final String arg : args) {
+            final int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        final LoadTestOptions options = new LoadTestOptions();
+        for (final Map.Entry<String, String> entry : values.entrySet()) {
+            final String value = entry.getValue();
+            switch (entry.getKey()) {
+                case "url" -> options.url = URI.create(value.replaceAll("/+$", ""));
+                case "rate" -> options.rate = Double.parseDouble(value);
+                case "arrival" -> options.poisson = parseArrival(value);
+                case "warmup" -> options.warmup = DurationStyle.detectAndParse(value);
+                case "duration" -> options.duration = DurationStyle.detectAndParse(value);
+                case "timeout" -> options.timeout = DurationStyle.detectAndParse(value);
+                case "seed-cars" -> options.seedCars = Integer.parseInt(value);
+                case "brands" -> options.brands = Integer.parseInt(value);
+                case "zipf-exponent" -> options.zipfExponent = Double.parseDouble(value);
+                case "min-price" -> options.minPrice = Double.parseDouble(value);
+                case "max-price" -> options.maxPrice = Double.parseDouble(value);
+                case "price-window" -> options.priceWindow = Double.parseDouble(value);
+                case "price-step" -> options.priceStep = Double.parseDouble(value);
+                case "page-limit" -> options.pageLimit = Integer.parseInt(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "hgrm-dir" -> options.hgrmDir = Path.of(value);
+                case "max-p99" -> options.maxP99 = DurationStyle.detectAndParse(value);
+                default -> throw new IllegalArgumentException("Unknown option --" + entry.getKey());
+            }
+        }
+        if (options.rate <= 0 || options.brands <= 0 || options.priceStep <= 0 || options.maxPrice < options.minPrice) {
+            throw new IllegalArgumentException(
+                    "rate, brands and price-step must be positive and max-price at least min-price");
+        }
+        return options;
+    }
+
+    private static boolean parseArrival(final String value) {
+        return switch (value) {
+            case "poisson" -> true;
+            case "uniform" -> false;
+            default -> throw new IllegalArgumentException("arrival must be poisson or uniform but got " + value);
+        };
+    }
+
+    /**
+     * @param value relative weights, e.g. price=40,brand=40,create=2, endpoints left out get no traffic
+     */
+    static Map<Endpoint, Integer> parseMix(final String value) {
+        final Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (final String part : value.split(",")) {
+            final String[] weight = part.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Expected endpoint=weight in the mix but got " + part);
+            }
+            mix.put(Endpoint.byName(weight[0]), Integer.parseInt(weight[1]));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("The mix needs at least one endpoint with a positive weight");
+        }
+        return mix;
+    }
+}
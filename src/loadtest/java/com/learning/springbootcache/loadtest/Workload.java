@@ -0,0 +1,140 @@
+package com.learning.springbootcache.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Builds the requests of a run: the endpoint is picked by the mix weights, the brand by a Zipf distribution over
+ * Brand0..BrandN-1 with Brand0 the hottest, and price windows uniformly within [minPrice, maxPrice].
+ * <p>
+ * Not thread safe, the dispatcher is its only caller.
+ */
+final class Workload {
+
+    private final LoadTestOptions options;
+
+    private final SplittableRandom random;
+
+    private final Endpoint[] endpoints;
+
+    private final int[] cumulativeWeights;
+
+    private final double[] brandCdf;
+
+    Workload(final LoadTestOptions options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.seed);
+        this.endpoints = options.mix.keySet().toArray(Endpoint[]::new);
+        this.cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += options.mix.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.brandCdf = zipfCdf(options.brands, options.zipfExponent);
+    }
+
+    record Operation(Endpoint endpoint, HttpRequest request) {
+    }
+
+    Operation next() {
+        final int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (cumulativeWeights[i] <= pick) {
+            i++;
+        }
+        return new Operation(endpoints[i], request(endpoints[i]));
+    }
+
+    /**
+     * The cars created before the run, the same count for every brand so the catalog itself is not skewed.
+     */
+    HttpRequest seedCar(final int index) {
+        return createRequest(brand(index % options.brands), index);
+    }
+
+    private HttpRequest request(final Endpoint endpoint) {
+        return switch (endpoint) {
+            case PRICE -> get("/cars?" + priceWindow());
+            case BRAND -> get("/cars?brand=" + encode(nextBrand()));
+            case PRICE_PAGE -> get("/cars?" + priceWindow() + "&limit=" + options.pageLimit);
+            case BRAND_PAGE -> get("/cars?brand=" + encode(nextBrand()) + "&limit=" + options.pageLimit);
+            case CREATE -> createRequest(nextBrand(), random.nextInt(1_000));
+            case EVICT -> get("/cars/evictBrandFilterCache?brands=" + encode(nextBrand()));
+            case UPDATE -> builder("/cars/updateBrandFilterCache")
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("[\"" + nextBrand() + "\"]"))
+                    .build();
+        };
+    }
+
+    private HttpRequest createRequest(final String brand, final int model) {
+        final String car = String.format(Locale.ROOT,
+                "{\"model\":\"Model%d\",\"brand\":\"%s\",\"horses\":%d,\"price\":%.2f}",
+                model, brand, random.nextInt(60, 600), random.nextDouble(options.minPrice, options.maxPrice));
+        return builder("/cars").header("Content-Type", "application/json")
+                               .POST(HttpRequest.BodyPublishers.ofString(car))
+                               .build();
+    }
+
+    private String priceWindow() {
+        final double width = random.nextDouble() * options.priceWindow;
+        final double slack = Math.max(0, options.maxPrice - options.minPrice - width);
+        final double min = options.minPrice + random.nextDouble() * slack;
+        final double step = options.priceStep;
+        return String.format(Locale.ROOT, "minPrice=%.0f&maxPrice=%.0f",
+                Math.floor(min / step) * step, Math.ceil((min + width) / step) * step);
+    }
+
+    private String nextBrand() {
+        final double u = random.nextDouble();
+        int low = 0;
+        int high = brandCdf.length - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (brandCdf[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return brand(low);
+    }
+
+    private HttpRequest get(final String path) {
+        return builder(path).GET().build();
+    }
+
+    private HttpRequest.Builder builder(final String path) {
+        return HttpRequest.newBuilder(URI.create(options.url + path)).timeout(options.timeout);
+    }
+
+    static String brand(final int rank) {
+        return "Brand" + rank;
+    }
+
+    /**
+     * P(rank k) is proportional to 1 / (k + 1)^exponent, k from 0 to n - 1.
+     */
+    static double[] zipfCdf(final int n, final double exponent) {
+        final double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        cdf[n - 1] = 1;
+        return cdf;
+    }
+
+    private static String encode(final String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
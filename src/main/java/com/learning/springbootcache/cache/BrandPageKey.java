@@ -0,0 +1,16 @@
+package com.learning.springbootcache.cache;
+
+import java.util.function.Predicate;
+
+/**
+ * Key of a brandPageCache entry. It names the brand, so a new car evicts only the pages of its own brand.
+ */
+public record BrandPageKey(String brand, String cursor, int limit) {
+
+    /**
+     * @return matches the page keys of the given brand
+     */
+    public static Predicate<Object> ofBrand(final String brand) {
+        return key -> key instanceof BrandPageKey page && brand.equals(page.brand);
+    }
+}
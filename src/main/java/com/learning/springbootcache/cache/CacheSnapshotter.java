@@ -0,0 +1,262 @@
+package com.learning.springbootcache.cache;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import com.learning.springbootcache.config.CacheProperties;
+import com.learning.springbootcache.dto.Car;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm restarts for the filter caches, enabled by app.cache.snapshot.enabled=true.
+ * <p>
+ * On shutdown, and every app.cache.snapshot.interval when set, the hottest entries of each snapshot cache are
+ * written hottest first to a compact binary file, see {@link CarCodec}. Hotness is Caffeine's own ranking from
+ * policy().eviction().hottest(), which orders by the TinyLFU access frequency sketch once a cache is half full. The file is written next to the old one and
+ * moved over it, so a crash mid-write never leaves a torn snapshot behind. On startup, as an ApplicationRunner so
+ * before the application reports ready, the file is memory-mapped and its entries are put back hottest first until
+ * the cache reaches its bound, so the coldest entries are the ones left out rather than evicting the hot ones.
+ * <p>
+ * Restored values are only as fresh as the snapshot: snapshots older than maxAge are ignored, and refreshing caches
+ * reload restored entries from the repository after refreshAfterWrite like any other entry.
+ * <p>
+ * File layout: int magic, int version, long written at epoch millis, int cache count, then per cache its name,
+ * int entry count and the entries as key followed by the car list.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.cache.snapshot", name = "enabled", havingValue = "true")
+public class CacheSnapshotter implements ApplicationRunner, DisposableBean {
+
+    static final int MAGIC = 0x43534E50;
+
+    static final int VERSION = 1;
+
+    /**
+     * Smallest encodings: a section is a name length and an entry count, an entry a key type, a string length and
+     * a car count. Counts read from the file are checked against them before anything is allocated.
+     */
+    private static final int SECTION_MIN_BYTES = 8;
+
+    private static final int ENTRY_MIN_BYTES = 9;
+
+    private final Map<String, CacheManager> cacheManagers;
+
+    private final CacheProperties.Snapshot settings;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "cache-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CacheSnapshotter(final Map<String, CacheManager> cacheManagers, final CacheProperties cacheProperties) {
+        this.cacheManagers = cacheManagers;
+        this.settings = cacheProperties.getSnapshot();
+    }
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        load();
+        final Duration interval = settings.getInterval();
+        if (interval != null && !interval.isZero()) {
+            scheduler.scheduleWithFixedDelay(this::writeQuietly, interval.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        writeQuietly();
+    }
+
+    /**
+     * Writes the hottest entries of every snapshot cache, replacing the previous snapshot.
+     */
+    public synchronized void write() throws IOException {
+        final long start = System.nanoTime();
+        final Path path = settings.getPath().toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        final Path tmp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        int written = 0;
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                final List<String> cacheNames = settings.getCaches();
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(cacheNames.size());
+                for (String cacheName : cacheNames) {
+                    final List<Map.Entry<Object, List<Car>>> entries = hottestEntries(cacheName);
+                    CarCodec.writeString(out, cacheName);
+                    out.writeInt(entries.size());
+                    for (Map.Entry<Object, List<Car>> entry : entries) {
+                        CarCodec.writeKey(out, entry.getKey());
+                        CarCodec.writeCars(out, entry.getValue());
+                    }
+                    written += entries.size();
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        log.info("Cache snapshot of {} entries written to {} in {} ms", written, path,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Loads the snapshot file into the snapshot caches, a missing, stale or unreadable snapshot leaves them cold.
+     * The whole file is decoded before the first entry is put, so a corrupt one restores nothing.
+     *
+     * @return the number of entries restored
+     */
+    public synchronized int load() {
+        final Path path = settings.getPath().toAbsolutePath();
+        if (!Files.isReadable(path)) {
+            log.info("No cache snapshot at {}, starting cold", path);
+            return 0;
+        }
+        final long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.warn("Ignoring cache snapshot {}, unknown format", path);
+                return 0;
+            }
+            final Instant writtenAt = Instant.ofEpochMilli(buffer.getLong());
+            if (writtenAt.plus(settings.getMaxAge()).isBefore(Instant.now())) {
+                log.info("Ignoring cache snapshot {} written at {}, older than {}", path, writtenAt,
+                        settings.getMaxAge());
+                return 0;
+            }
+            final int cacheCount = CarCodec.readCount(buffer, SECTION_MIN_BYTES);
+            final List<Section> sections = new ArrayList<>(cacheCount);
+            for (int i = 0; i < cacheCount; i++) {
+                sections.add(readSection(buffer));
+            }
+            int restored = 0;
+            for (Section section : sections) {
+                restored += restore(section);
+            }
+            log.info("Restored {} cache entries from snapshot {} written at {} in {} ms", restored, path, writtenAt,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return restored;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable cache snapshot {}, starting cold", path, e);
+            return 0;
+        }
+    }
+
+    private record Section(String cacheName, List<Map.Entry<Object, List<Car>>> entries) {
+    }
+
+    private static Section readSection(final ByteBuffer buffer) {
+        final String cacheName = CarCodec.readString(buffer);
+        final int entryCount = CarCodec.readCount(buffer, ENTRY_MIN_BYTES);
+        final List<Map.Entry<Object, List<Car>>> entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            final Object key = CarCodec.readKey(buffer);
+            entries.add(Map.entry(key, CarCodec.readCars(buffer)));
+        }
+        return new Section(cacheName, entries);
+    }
+
+    /**
+     * Puts the entries of one cache section back, hottest first, until the cache is full.
+     */
+    private int restore(final Section section) {
+        final Optional<Cache> cache = findCache(section.cacheName());
+        if (cache.isEmpty()) {
+            log.warn("Skipped {} snapshot entries of unknown cache {}", section.entries().size(),
+                    section.cacheName());
+            return 0;
+        }
+        final Optional<com.github.benmanes.caffeine.cache.Cache<Object, Object>> nativeCache =
+                cache.flatMap(NativeCaches::caffeine);
+        int restored = 0;
+        for (Map.Entry<Object, List<Car>> entry : section.entries()) {
+            if (nativeCache.map(CacheSnapshotter::isFull).orElse(false)) {
+                break;
+            }
+            cache.get().put(entry.getKey(), entry.getValue());
+            restored++;
+        }
+        return restored;
+    }
+
+    private static boolean isFull(final com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache) {
+        final Optional<Policy.Eviction<Object, Object>> eviction = nativeCache.policy().eviction();
+        if (eviction.isEmpty()) {
+            return false;
+        }
+        final long size = eviction.get().weightedSize().orElse(nativeCache.estimatedSize());
+        return size >= eviction.get().getMaximum();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map.Entry<Object, List<Car>>> hottestEntries(final String cacheName) {
+        final Optional<com.github.benmanes.caffeine.cache.Cache<Object, Object>> nativeCache =
+                findCache(cacheName).flatMap(NativeCaches::caffeine);
+        if (nativeCache.isEmpty()) {
+            return List.of();
+        }
+        final Map<Object, Object> hottest = nativeCache.get()
+                                                       .policy()
+                                                       .eviction()
+                                                       .map(eviction -> eviction.hottest(settings.getMaxEntries()))
+                                                       .orElseGet(() -> nativeCache.get().asMap());
+        final List<Map.Entry<Object, List<Car>>> entries = new ArrayList<>(hottest.size());
+        for (Map.Entry<Object, Object> entry : hottest.entrySet()) {
+            if (entries.size() < settings.getMaxEntries()
+                    && CarCodec.isSupportedKey(entry.getKey())
+                    && entry.getValue() instanceof List<?> cars) {
+                entries.add(Map.entry(entry.getKey(), (List<Car>) cars));
+            }
+        }
+        return entries;
+    }
+
+    private Optional<Cache> findCache(final String cacheName) {
+        return cacheManagers.values()
+                            .stream()
+                            .map(cacheManager -> cacheManager.getCache(cacheName))
+                            .filter(Objects::nonNull)
+                            .findFirst();
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cache snapshot to {} failed", settings.getPath(), e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.learning.springbootcache.cache;
+
+import com.learning.springbootcache.dto.Car;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write-driven invalidation of the filter caches.
+ * <p>
+ * A new car only changes the result of its own brand and of the price ranges containing its price, so only those
+ * entries are evicted and every other cached brand and range stays hot. The brand key is the brand itself, which
+ * is the key @Cacheable and @CachePut use for a single parameter. In the page caches a new car shifts every later
+ * page of its brand and price ranges, so all pages of its brand and of the ranges containing its price are
+ * evicted, found by their {@link BrandPageKey} and {@link PricePageKey}. All invalidations are also published to
+ * the peer nodes through the InvalidationBus.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class CarCacheInvalidator {
+
+    @Qualifier("brandFilterCacheManager")
+    CacheManager brandFilterCacheManager;
+
+    @Qualifier("priceFilterCacheManager")
+    CacheManager priceFilterCacheManager;
+
+    InvalidationBus invalidationBus;
+
+    public void carCreated(final Car car) {
+        final Cache brandCache = brandFilterCacheManager.getCache("brandFilterCache");
+        if (brandCache != null && car.getBrand() != null) {
+            brandCache.evict(car.getBrand());
+            invalidationBus.evict(brandCache.getName(), car.getBrand());
+        }
+        final Cache priceCache = priceFilterCacheManager.getCache("priceFilterCache");
+        if (priceCache instanceof PriceRangeCache priceRangeCache && car.getPrice() != null) {
+            priceRangeCache.evictContaining(car.getPrice());
+            invalidationBus.evictContaining(priceRangeCache.getName(), car.getPrice());
+        }
+        final Cache brandPageCache = brandFilterCacheManager.getCache("brandPageCache");
+        if (brandPageCache != null && car.getBrand() != null) {
+            NativeCaches.evictIf(brandPageCache, BrandPageKey.ofBrand(car.getBrand()));
+            invalidationBus.evictBrand(brandPageCache.getName(), car.getBrand());
+        }
+        final Cache pricePageCache = priceFilterCacheManager.getCache("pricePageCache");
+        if (pricePageCache != null && car.getPrice() != null) {
+            NativeCaches.evictIf(pricePageCache, PricePageKey.containing(car.getPrice()));
+            invalidationBus.evictContaining(pricePageCache.getName(), car.getPrice());
+        }
+        log.debug("Invalidated brand {} and price ranges containing {}", car.getBrand(), car.getPrice());
+    }
+}
@@ -0,0 +1,146 @@
+package com.learning.springbootcache.cache;
+
+import com.learning.springbootcache.dto.Car;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compact binary encoding of cache keys and car lists, written through a {@link DataOutput} and read back from a
+ * {@link ByteBuffer}, so a memory-mapped or direct buffer can be decoded without copying it to the heap first.
+ * <p>
+ * Layout, big-endian like DataOutput:
+ * key: a type byte, then a string (KEY_STRING) or two doubles (KEY_PRICE_RANGE)
+ * car list: int count, then per car a presence bit set byte, long id, model, brand, int horses, double price,
+ * each field written only when present
+ * string: int byte length, then UTF-8 bytes
+ * <p>
+ * Reads check every count and length against the bytes left before allocating, so a corrupt or truncated buffer
+ * fails with an IllegalStateException or BufferUnderflowException instead of a huge or negative allocation.
+ */
+public final class CarCodec {
+
+    static final byte KEY_STRING = 1;
+
+    static final byte KEY_PRICE_RANGE = 2;
+
+    private static final int ID = 1;
+
+    private static final int MODEL = 1 << 1;
+
+    private static final int BRAND = 1 << 2;
+
+    private static final int HORSES = 1 << 3;
+
+    private static final int PRICE = 1 << 4;
+
+    private CarCodec() {
+    }
+
+    /**
+     * @return true when the key type can be encoded, other keys are skipped by the callers
+     */
+    public static boolean isSupportedKey(final Object key) {
+        return key instanceof String || key instanceof PriceRange;
+    }
+
+    public static void writeKey(final DataOutput out, final Object key) throws IOException {
+        if (key instanceof String brand) {
+            out.writeByte(KEY_STRING);
+            writeString(out, brand);
+        } else if (key instanceof PriceRange range) {
+            out.writeByte(KEY_PRICE_RANGE);
+            out.writeDouble(range.min());
+            out.writeDouble(range.max());
+        } else {
+            throw new IllegalArgumentException("Unsupported cache key type " + key.getClass().getName());
+        }
+    }
+
+    public static Object readKey(final ByteBuffer in) {
+        final byte type = in.get();
+        return switch (type) {
+            case KEY_STRING -> readString(in);
+            case KEY_PRICE_RANGE -> new PriceRange(in.getDouble(), in.getDouble());
+            default -> throw new IllegalStateException("Unknown cache key type " + type);
+        };
+    }
+
+    public static void writeCars(final DataOutput out, final List<Car> cars) throws IOException {
+        out.writeInt(cars.size());
+        for (Car car : cars) {
+            final int present = (car.getId() != null ? ID : 0)
+                    | (car.getModel() != null ? MODEL : 0)
+                    | (car.getBrand() != null ? BRAND : 0)
+                    | (car.getHorses() != null ? HORSES : 0)
+                    | (car.getPrice() != null ? PRICE : 0);
+            out.writeByte(present);
+            if (car.getId() != null) {
+                out.writeLong(car.getId());
+            }
+            if (car.getModel() != null) {
+                writeString(out, car.getModel());
+            }
+            if (car.getBrand() != null) {
+                writeString(out, car.getBrand());
+            }
+            if (car.getHorses() != null) {
+                out.writeInt(car.getHorses());
+            }
+            if (car.getPrice() != null) {
+                out.writeDouble(car.getPrice());
+            }
+        }
+    }
+
+    public static List<Car> readCars(final ByteBuffer in) {
+        final int count = readCount(in, 1);
+        final List<Car> cars = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int present = in.get();
+            cars.add(new Car(
+                    (present & ID) != 0 ? in.getLong() : null,
+                    (present & MODEL) != 0 ? readString(in) : null,
+                    (present & BRAND) != 0 ? readString(in) : null,
+                    (present & HORSES) != 0 ? in.getInt() : null,
+                    (present & PRICE) != 0 ? in.getDouble() : null));
+        }
+        return Collections.unmodifiableList(cars);
+    }
+
+    public static void writeString(final DataOutput out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(final ByteBuffer in) {
+        final int length = readCount(in, 1);
+        final String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        } else {
+            final byte[] bytes = new byte[length];
+            in.get(in.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * Reads an int count of items taking at least minBytes each and checks it against the bytes left.
+     */
+    static int readCount(final ByteBuffer in, final int minBytes) {
+        final int count = in.getInt();
+        if (count < 0 || count > in.remaining() / minBytes) {
+            throw new IllegalStateException("Corrupt count " + count + " with " + in.remaining() + " bytes left");
+        }
+        return count;
+    }
+}
@@ -0,0 +1,44 @@
+package com.learning.springbootcache.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.learning.springbootcache.dto.CarPage;
+
+import java.util.Collection;
+
+/**
+ * Weighs cache entries by their estimated retained heap in bytes, so a cache can be bounded with maximumWeight
+ * instead of an entry count that says nothing about a one-car list versus a fifty-thousand-car list.
+ * <p>
+ * The estimate is a fixed per-entry overhead (key, cache node, list wrapper) plus the list length times the cost
+ * of one car. The default car cost assumes compressed oops: the Car object with its boxed Long, Integer and
+ * Double, two short Strings and the list slot pointing at it. Cars are often shared with the catalog, so this
+ * overestimates, which keeps the bound on the safe side. A {@link CarPage} weighs like the list of its items.
+ */
+public class CarListWeigher implements Weigher<Object, Object> {
+
+    public static final int DEFAULT_BYTES_PER_CAR = 200;
+
+    static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final int bytesPerCar;
+
+    public CarListWeigher(final int bytesPerCar) {
+        this.bytesPerCar = bytesPerCar > 0 ? bytesPerCar : DEFAULT_BYTES_PER_CAR;
+    }
+
+    @Override
+    public int weigh(final Object key, final Object value) {
+        if (value instanceof Collection<?> cars) {
+            return weigh(cars);
+        }
+        if (value instanceof CarPage page) {
+            return weigh(page.getItems());
+        }
+        return ENTRY_OVERHEAD_BYTES;
+    }
+
+    private int weigh(final Collection<?> cars) {
+        final long bytes = ENTRY_OVERHEAD_BYTES + (long) cars.size() * bytesPerCar;
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,133 @@
+package com.learning.springbootcache.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learning.springbootcache.dto.Car;
+import com.learning.springbootcache.config.CacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON encodings of cached results, so a cache hit writes bytes instead of running Jackson over the list again.
+ * <p>
+ * Entries are keyed by the filter cache key, the brand or the {@link PriceRange}, and remember the car instances
+ * they were encoded from. A lookup whose result holds the same cars in the same order reuses the encoding, which
+ * covers both a filter cache hit and a sub-range slice PriceRangeCache builds per request from the same superset.
+ * There is nothing to invalidate: once the filter cache evicts, refreshes or replaces the result, the next lookup
+ * brings other car instances and re-encodes it under a new ETag. Cars are compared by reference, so the check is
+ * far cheaper than the encoding it saves.
+ * <p>
+ * Enabled by app.cache.encoded-responses.enabled, bounded by encoded bytes. Published as encodedResponseCache in
+ * the cache.* meters.
+ */
+@Component
+public class EncodedResponseCache {
+
+    public static final String NAME = "encodedResponseCache";
+
+    private final ObjectMapper objectMapper;
+
+    private final CacheProperties.EncodedResponses settings;
+
+    private final Cache<Object, Entry> bodies;
+
+    public EncodedResponseCache(final ObjectMapper objectMapper, final CacheProperties cacheProperties,
+            final ObjectProvider<MeterRegistry> meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.settings = cacheProperties.getEncodedResponses();
+        this.bodies = Caffeine.newBuilder()
+                              .maximumWeight(settings.getMaximumWeight().toBytes())
+                              .weigher((Object key, Entry entry) -> entry.weight())
+                              .recordStats()
+                              .build();
+        CaffeineCacheMetrics.monitor(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), bodies, NAME);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * @param key    the filter cache key the result was looked up with
+     * @param result the filter cache result
+     * @return the encoding of the result, computed again when the cached one was made from other cars
+     */
+    public EncodedBody get(final Object key, final List<Car> result) {
+        final Entry cached = bodies.getIfPresent(key);
+        if (cached != null && cached.encodes(result)) {
+            return cached.body();
+        }
+        final Entry entry = new Entry(result.toArray(Car[]::new), encode(result));
+        bodies.put(key, entry);
+        return entry.body();
+    }
+
+    private EncodedBody encode(final Object result) {
+        final byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode " + result.getClass().getName(), e);
+        }
+        final byte[] gzip = settings.isGzip() && json.length >= settings.getGzipMinSize().toBytes()
+                ? gzip(json)
+                : null;
+        return new EncodedBody(json, gzip, '"' + DigestUtils.md5DigestAsHex(json) + '"');
+    }
+
+    private static byte[] gzip(final byte[] json) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param source the cars the body was encoded from, a copy so a slice does not pin its superset
+     */
+    private record Entry(Car[] source, EncodedBody body) {
+
+        boolean encodes(final List<Car> result) {
+            if (result.size() != source.length) {
+                return false;
+            }
+            int i = 0;
+            for (Car car : result) {
+                if (car != source[i++]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int weight() {
+            return body.weight() + source.length * Long.BYTES;
+        }
+    }
+
+    /**
+     * @param gzip the gzip encoding of json, null when it is too small to be worth compressing
+     * @param etag strong ETag, quoted, derived from the JSON bytes
+     */
+    public record EncodedBody(byte[] json, byte[] gzip, String etag) {
+
+        int weight() {
+            return json.length + (gzip == null ? 0 : gzip.length) + etag.length();
+        }
+    }
+}
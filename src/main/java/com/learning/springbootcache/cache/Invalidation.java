@@ -0,0 +1,46 @@
+package com.learning.springbootcache.cache;
+
+/**
+ * One cache invalidation sent over the {@link InvalidationBus}.
+ *
+ * @param key the evicted key for EVICT, the price as a Double for EVICT_CONTAINING, the brand for EVICT_BRAND,
+ *            null for CLEAR
+ */
+public record Invalidation(Kind kind, String cacheName, Object key) {
+
+    public enum Kind {
+        /**
+         * Cache.evict(key)
+         */
+        EVICT,
+        /**
+         * PriceRangeCache.evictContaining(price), the ranges containing a price, or the {@link PricePageKey} pages
+         * of those ranges
+         */
+        EVICT_CONTAINING,
+        /**
+         * Cache.clear()
+         */
+        CLEAR,
+        /**
+         * The {@link BrandPageKey} pages of a brand
+         */
+        EVICT_BRAND
+    }
+
+    public static Invalidation evict(final String cacheName, final Object key) {
+        return new Invalidation(Kind.EVICT, cacheName, key);
+    }
+
+    public static Invalidation evictContaining(final String cacheName, final double price) {
+        return new Invalidation(Kind.EVICT_CONTAINING, cacheName, price);
+    }
+
+    public static Invalidation evictBrand(final String cacheName, final String brand) {
+        return new Invalidation(Kind.EVICT_BRAND, cacheName, brand);
+    }
+
+    public static Invalidation clear(final String cacheName) {
+        return new Invalidation(Kind.CLEAR, cacheName, null);
+    }
+}
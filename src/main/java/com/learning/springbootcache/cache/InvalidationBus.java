@@ -0,0 +1,279 @@
+package com.learning.springbootcache.cache;
+
+import com.learning.springbootcache.config.CacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broadcasts local cache invalidations to the peer nodes, enabled by app.cache.bus.enabled.
+ * <p>
+ * The evict and put paths of CarService and CarCacheInvalidator publish what they change, a put is sent as an
+ * evict so the peers reload the key from their own catalog on the next read. Invalidations are collected for
+ * flushInterval and coalesced before they are sent: duplicates are sent once, and a clear of a cache replaces
+ * every pending evict of it. A batch is sent early when it reaches maxBatchSize and split to fit the transport.
+ * <p>
+ * Received invalidations are applied straight to the local caches, not through CarService, so they are never
+ * published again. Each batch carries the sending node's id, a node ignores its own batches. Delivery is best
+ * effort, the TTLs still bound how long a lost invalidation can leave a stale entry on a peer.
+ * <p>
+ * Batch layout: int magic, long node id, int count, then per invalidation its kind, cache name and key (see
+ * {@link CarCodec}), price or brand. A key CarCodec cannot encode, or whose invalidation alone does not fit a message of
+ * the transport, is sent as a clear of its cache.
+ */
+@Slf4j
+@Component
+public class InvalidationBus implements InitializingBean, DisposableBean {
+
+    static final int MAGIC = 0x43494E56;
+
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final Map<String, CacheManager> cacheManagers;
+
+    private final CacheProperties.Bus settings;
+
+    private final InvalidationTransport transport;
+
+    private final long nodeId = UUID.randomUUID().getMostSignificantBits();
+
+    private final Object pendingLock = new Object();
+
+    private Set<Invalidation> pending = new LinkedHashSet<>();
+
+    private volatile boolean closed;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "cache-invalidation-bus");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InvalidationBus(final Map<String, CacheManager> cacheManagers, final CacheProperties cacheProperties,
+            final ObjectProvider<InvalidationTransport> transport) {
+        this.cacheManagers = cacheManagers;
+        this.settings = cacheProperties.getBus();
+        this.transport = settings.isEnabled() ? transport.getIfAvailable() : null;
+    }
+
+    public boolean isEnabled() {
+        return transport != null;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!isEnabled()) {
+            return;
+        }
+        transport.start(this::receive);
+        final long interval = settings.getFlushInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.NANOSECONDS);
+        log.info("Cache invalidation bus started as node {} over {}", Long.toHexString(nodeId),
+                transport.getClass().getSimpleName());
+    }
+
+    /**
+     * Sends what is pending, invalidations published afterwards are dropped
+     */
+    @Override
+    public void destroy() {
+        if (!isEnabled() || closed) {
+            return;
+        }
+        closed = true;
+        scheduler.shutdownNow();
+        flushQuietly();
+        transport.close();
+    }
+
+    public void evict(final String cacheName, final Object key) {
+        publish(Invalidation.evict(cacheName, key));
+    }
+
+    public void evictContaining(final String cacheName, final double price) {
+        publish(Invalidation.evictContaining(cacheName, price));
+    }
+
+    public void evictBrand(final String cacheName, final String brand) {
+        publish(Invalidation.evictBrand(cacheName, brand));
+    }
+
+    public void clear(final String cacheName) {
+        publish(Invalidation.clear(cacheName));
+    }
+
+    public void publish(final Invalidation invalidation) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (closed) {
+            log.debug("Dropping {}, the invalidation bus is closed", invalidation);
+            return;
+        }
+        final boolean full;
+        synchronized (pendingLock) {
+            if (invalidation.kind() == Invalidation.Kind.CLEAR) {
+                pending.removeIf(queued -> queued.cacheName().equals(invalidation.cacheName()));
+            } else if (pending.contains(Invalidation.clear(invalidation.cacheName()))) {
+                return;
+            }
+            pending.add(invalidation);
+            full = pending.size() >= settings.getMaxBatchSize();
+        }
+        if (full) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                log.debug("Leaving a full batch unsent, the invalidation bus is closing");
+            }
+        }
+    }
+
+    /**
+     * Sends everything pending, in as many messages as the transport needs.
+     */
+    public void flush() {
+        final Set<Invalidation> batch;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashSet<>();
+        }
+        final int maxBytes = transport.maxMessageBytes() - HEADER_BYTES;
+        final List<byte[]> message = new ArrayList<>();
+        int messageBytes = 0;
+        for (Invalidation invalidation : batch) {
+            final byte[] encoded = fit(encode(invalidation), invalidation, maxBytes);
+            if (messageBytes + encoded.length > maxBytes && !message.isEmpty()) {
+                transport.send(toMessage(message, messageBytes));
+                message.clear();
+                messageBytes = 0;
+            }
+            message.add(encoded);
+            messageBytes += encoded.length;
+        }
+        if (!message.isEmpty()) {
+            transport.send(toMessage(message, messageBytes));
+        }
+        log.debug("Sent {} cache invalidations", batch.size());
+    }
+
+    void receive(final byte[] message) {
+        final ByteBuffer in = ByteBuffer.wrap(message);
+        if (in.getInt() != MAGIC) {
+            log.warn("Ignoring a message that is not a cache invalidation batch");
+            return;
+        }
+        if (in.getLong() == nodeId) {
+            return;
+        }
+        final int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            apply(decode(in));
+        }
+        log.debug("Applied {} cache invalidations from a peer", count);
+    }
+
+    private void apply(final Invalidation invalidation) {
+        final Cache cache = cacheManagers.values()
+                                         .stream()
+                                         .map(cacheManager -> cacheManager.getCache(invalidation.cacheName()))
+                                         .filter(Objects::nonNull)
+                                         .findFirst()
+                                         .orElse(null);
+        if (cache == null) {
+            return;
+        }
+        switch (invalidation.kind()) {
+            case EVICT -> cache.evict(invalidation.key());
+            case EVICT_CONTAINING -> {
+                if (cache instanceof PriceRangeCache priceRangeCache) {
+                    priceRangeCache.evictContaining((Double) invalidation.key());
+                } else {
+                    NativeCaches.evictIf(cache, PricePageKey.containing((Double) invalidation.key()));
+                }
+            }
+            case EVICT_BRAND -> NativeCaches.evictIf(cache, BrandPageKey.ofBrand((String) invalidation.key()));
+            case CLEAR -> cache.clear();
+        }
+    }
+
+    private static byte[] encode(final Invalidation invalidation) {
+        final Invalidation sendable = invalidation.kind() == Invalidation.Kind.EVICT
+                && !CarCodec.isSupportedKey(invalidation.key())
+                ? Invalidation.clear(invalidation.cacheName())
+                : invalidation;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(sendable.kind().ordinal());
+            CarCodec.writeString(out, sendable.cacheName());
+            switch (sendable.kind()) {
+                case EVICT -> CarCodec.writeKey(out, sendable.key());
+                case EVICT_CONTAINING -> out.writeDouble((Double) sendable.key());
+                case EVICT_BRAND -> CarCodec.writeString(out, (String) sendable.key());
+                case CLEAR -> {
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] fit(final byte[] encoded, final Invalidation invalidation, final int maxBytes) {
+        if (encoded.length <= maxBytes) {
+            return encoded;
+        }
+        log.debug("Sending an invalidation of {} bytes as a clear of {}", encoded.length, invalidation.cacheName());
+        return encode(Invalidation.clear(invalidation.cacheName()));
+    }
+
+    private static Invalidation decode(final ByteBuffer in) {
+        final Invalidation.Kind kind = Invalidation.Kind.values()[in.get()];
+        final String cacheName = CarCodec.readString(in);
+        return switch (kind) {
+            case EVICT -> Invalidation.evict(cacheName, CarCodec.readKey(in));
+            case EVICT_CONTAINING -> Invalidation.evictContaining(cacheName, in.getDouble());
+            case EVICT_BRAND -> Invalidation.evictBrand(cacheName, CarCodec.readString(in));
+            case CLEAR -> Invalidation.clear(cacheName);
+        };
+    }
+
+    private byte[] toMessage(final List<byte[]> invalidations, final int bytes) {
+        final ByteBuffer message = ByteBuffer.allocate(HEADER_BYTES + bytes);
+        message.putInt(MAGIC).putLong(nodeId).putInt(invalidations.size());
+        invalidations.forEach(message::put);
+        return message.array();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Cannot send cache invalidations", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.learning.springbootcache.cache;
+
+import java.io.Closeable;
+import java.util.function.Consumer;
+
+/**
+ * Delivery of encoded invalidation batches between nodes for the {@link InvalidationBus}. Delivery is best
+ * effort, a lost batch leaves the peers' entries to expire by their TTL.
+ */
+public interface InvalidationTransport extends Closeable {
+
+    /**
+     * Starts delivering the batches sent by the other nodes to the receiver. A transport may also deliver the
+     * node's own batches, the bus ignores them.
+     */
+    void start(Consumer<byte[]> receiver);
+
+    /**
+     * Sends one batch to every other node, at most {@link #maxMessageBytes()} long.
+     */
+    void send(byte[] batch);
+
+    int maxMessageBytes();
+
+    @Override
+    void close();
+}
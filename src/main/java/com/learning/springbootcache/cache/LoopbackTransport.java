@@ -0,0 +1,54 @@
+package com.learning.springbootcache.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process transport: every transport of the same {@link Network} receives every batch, synchronously on the
+ * sending thread. For tests and for several application contexts in one JVM, which share {@link Network#DEFAULT}.
+ */
+public class LoopbackTransport implements InvalidationTransport {
+
+    private final Network network;
+
+    private Consumer<byte[]> receiver;
+
+    public LoopbackTransport(final Network network) {
+        this.network = network;
+    }
+
+    @Override
+    public void start(final Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+        network.receivers.add(receiver);
+    }
+
+    @Override
+    public void send(final byte[] batch) {
+        network.receivers.forEach(peer -> peer.accept(batch));
+    }
+
+    @Override
+    public int maxMessageBytes() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void close() {
+        network.receivers.remove(receiver);
+    }
+
+    /**
+     * The shared medium of a group of loopback transports.
+     */
+    public static class Network {
+
+        /**
+         * The network of the loopback transport beans, so every context of the JVM is a peer of the others.
+         */
+        public static final Network DEFAULT = new Network();
+
+        private final List<Consumer<byte[]>> receivers = new CopyOnWriteArrayList<>();
+    }
+}
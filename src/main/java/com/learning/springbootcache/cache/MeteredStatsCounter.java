@@ -0,0 +1,67 @@
+package com.learning.springbootcache.cache;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caffeine stats counter that also records every load into a Micrometer timer with a latency histogram.
+ * <p>
+ * Hit, miss and eviction counts stay in Caffeine's own counter and are published by Spring Boot's cache metrics.
+ * Caffeine only keeps the total load time, the timer adds the distribution: cache.load.latency, tagged by cache
+ * and cache.manager like the other cache meters.
+ */
+public class MeteredStatsCounter implements StatsCounter {
+
+    public static final String LOAD_LATENCY = "cache.load.latency";
+
+    private final StatsCounter delegate = new ConcurrentStatsCounter();
+
+    private final Timer loadLatency;
+
+    public MeteredStatsCounter(final MeterRegistry registry, final String cacheName, final String cacheManager) {
+        this.loadLatency = Timer.builder(LOAD_LATENCY)
+                                .description("Time spent loading a cache entry on a miss or refresh")
+                                .tags("cache", cacheName, "cache.manager", cacheManager)
+                                .publishPercentiles(0.5, 0.95, 0.99)
+                                .publishPercentileHistogram()
+                                .register(registry);
+    }
+
+    @Override
+    public void recordHits(final int count) {
+        delegate.recordHits(count);
+    }
+
+    @Override
+    public void recordMisses(final int count) {
+        delegate.recordMisses(count);
+    }
+
+    @Override
+    public void recordLoadSuccess(final long loadTime) {
+        delegate.recordLoadSuccess(loadTime);
+        loadLatency.record(loadTime, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordLoadFailure(final long loadTime) {
+        delegate.recordLoadFailure(loadTime);
+        loadLatency.record(loadTime, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordEviction(final int weight, final RemovalCause cause) {
+        delegate.recordEviction(weight, cause);
+    }
+
+    @Override
+    public CacheStats snapshot() {
+        return delegate.snapshot();
+    }
+}
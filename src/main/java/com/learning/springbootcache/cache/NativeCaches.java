@@ -0,0 +1,42 @@
+package com.learning.springbootcache.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Access to the Caffeine cache behind a Spring {@link Cache}, for statistics, tuning and bulk operations that
+ * the Spring abstraction does not offer.
+ */
+public final class NativeCaches {
+
+    private NativeCaches() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Optional<com.github.benmanes.caffeine.cache.Cache<Object, Object>> caffeine(final Cache cache) {
+        if (cache instanceof CaffeineCache caffeineCache) {
+            return Optional.of(caffeineCache.getNativeCache());
+        }
+        if (cache instanceof PriceRangeCache priceRangeCache) {
+            return Optional.of((com.github.benmanes.caffeine.cache.Cache<Object, Object>)
+                    (com.github.benmanes.caffeine.cache.Cache<?, ?>) priceRangeCache.getNativeCache());
+        }
+        if (cache instanceof TieredCache tieredCache) {
+            return Optional.of(tieredCache.getNativeCache());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Evicts the keys matching the predicate through the Spring cache, so a TieredCache drops them from both tiers.
+     * A cache without a Caffeine cache to scan is cleared instead.
+     */
+    public static void evictIf(final Cache cache, final Predicate<Object> keys) {
+        caffeine(cache).ifPresentOrElse(
+                caffeine -> caffeine.asMap().keySet().stream().filter(keys).toList().forEach(cache::evict),
+                cache::clear);
+    }
+}
@@ -0,0 +1,251 @@
+package com.learning.springbootcache.cache;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.learning.springbootcache.dto.Car;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Off-heap second tier of a {@link TieredCache}: car lists encoded with {@link CarCodec} into one direct
+ * ByteBuffer, so cached results cost the heap only their key and a small index entry and are never traced by the
+ * garbage collector.
+ * <p>
+ * The buffer is a ring log: records are appended at the write position, which wraps to the start when the next
+ * record does not fit, and a write overwrites, and so evicts, the oldest records in its way (FIFO). Records are
+ * never updated in place, a put of an existing key appends a new record and drops the old one from the index.
+ * <p>
+ * A take copies the record out and drops it under the write lock, like any write, and decodes it outside of it,
+ * only the size getters take the read lock. The buffer counts against -XX:MaxDirectMemorySize and is limited to 2GB.
+ */
+public class OffHeapStore {
+
+    public static final String SIZE = "cache.offheap.size";
+
+    public static final String USED = "cache.offheap.used";
+
+    public static final String GETS = "cache.offheap.gets";
+
+    public static final String EVICTIONS = "cache.offheap.evictions";
+
+    private final ByteBuffer buffer;
+
+    private final long expireAfterWriteNanos;
+
+    private final Ticker ticker;
+
+    private final Map<Object, Slot> slots = new HashMap<>();
+
+    private final NavigableMap<Integer, Object> keysByOffset = new TreeMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private int writePosition;
+
+    private long usedBytes;
+
+    /**
+     * @param expireAfterWrite records older than this are not returned, null keeps them until overwritten
+     */
+    public OffHeapStore(final int capacityBytes, final Duration expireAfterWrite, final Ticker ticker) {
+        this.buffer = ByteBuffer.allocateDirect(capacityBytes);
+        this.expireAfterWriteNanos = expireAfterWrite == null ? Long.MAX_VALUE : expireAfterWrite.toNanos();
+        this.ticker = ticker;
+    }
+
+    /**
+     * Removes the key and returns its cars, or null when absent, expired or overwritten.
+     */
+    public List<Car> take(final Object key) {
+        final byte[] record;
+        lock.writeLock().lock();
+        try {
+            final Slot slot = slots.get(key);
+            if (slot == null || isExpired(slot)) {
+                removeSlot(key);
+                misses.increment();
+                return null;
+            }
+            record = new byte[slot.length()];
+            buffer.get(slot.offset(), record);
+            removeSlot(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        hits.increment();
+        return CarCodec.readCars(ByteBuffer.wrap(record));
+    }
+
+    /**
+     * Stores cars that were just loaded, see {@link #put(Object, List, long)}
+     */
+    public boolean put(final Object key, final List<Car> cars) {
+        return put(key, cars, 0);
+    }
+
+    /**
+     * Stores the cars under the key, evicting the oldest records to make room.
+     *
+     * @param ageNanos how long ago the cars were loaded, expireAfterWrite counts from then
+     * @return false when the key type is not supported or the record is larger than the whole buffer
+     */
+    public boolean put(final Object key, final List<Car> cars, final long ageNanos) {
+        if (!CarCodec.isSupportedKey(key)) {
+            return false;
+        }
+        final byte[] record = encode(cars);
+        if (record.length > buffer.capacity()) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            removeSlot(key);
+            if (writePosition + record.length > buffer.capacity()) {
+                writePosition = 0;
+            }
+            evictOverlapping(writePosition, writePosition + record.length);
+            buffer.put(writePosition, record);
+            slots.put(key, new Slot(writePosition, record.length, ticker.read() - ageNanos));
+            keysByOffset.put(writePosition, key);
+            usedBytes += record.length;
+            writePosition += record.length;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(final Object key) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            keysByOffset.clear();
+            usedBytes = 0;
+            writePosition = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long usedBytes() {
+        lock.readLock().lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int capacityBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Publishes the entry count, used bytes, hits and misses and overwrite evictions, tagged by cache plus the given
+     * tags like the Caffeine cache meters.
+     */
+    public void bindTo(final MeterRegistry registry, final String cacheName, final Iterable<Tag> tags) {
+        final Tags cacheTags = Tags.concat(tags, "cache", cacheName);
+        Gauge.builder(SIZE, this, OffHeapStore::size)
+             .description("Entries in the off-heap tier")
+             .tags(cacheTags)
+             .register(registry);
+        Gauge.builder(USED, this, OffHeapStore::usedBytes)
+             .description("Bytes of live records in the off-heap tier")
+             .baseUnit("bytes")
+             .tags(cacheTags)
+             .register(registry);
+        FunctionCounter.builder(GETS, hits, LongAdder::sum)
+                       .tags(cacheTags.and("result", "hit"))
+                       .register(registry);
+        FunctionCounter.builder(GETS, misses, LongAdder::sum)
+                       .tags(cacheTags.and("result", "miss"))
+                       .register(registry);
+        FunctionCounter.builder(EVICTIONS, evictions, LongAdder::sum)
+                       .description("Records overwritten before they were read back")
+                       .tags(cacheTags)
+                       .register(registry);
+    }
+
+    private boolean isExpired(final Slot slot) {
+        return ticker.read() - slot.writtenAtNanos() >= expireAfterWriteNanos;
+    }
+
+    /**
+     * Drops every record overlapping [from, to). Records never overlap each other, so only the record starting
+     * before from can reach into the range, all others start inside it.
+     */
+    private void evictOverlapping(final int from, final int to) {
+        final Map.Entry<Integer, Object> before = keysByOffset.lowerEntry(from);
+        if (before != null && before.getKey() + slots.get(before.getValue()).length() > from) {
+            removeSlot(before.getValue());
+            evictions.increment();
+        }
+        for (Object key : List.copyOf(keysByOffset.subMap(from, true, to, false).values())) {
+            removeSlot(key);
+            evictions.increment();
+        }
+    }
+
+    private void removeSlot(final Object key) {
+        final Slot slot = slots.remove(key);
+        if (slot != null) {
+            keysByOffset.remove(slot.offset());
+            usedBytes -= slot.length();
+        }
+    }
+
+    private static byte[] encode(final List<Car> cars) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + cars.size() * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            CarCodec.writeCars(out, cars);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private record Slot(int offset, int length, long writtenAtNanos) {
+    }
+}
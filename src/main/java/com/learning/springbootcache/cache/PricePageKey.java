@@ -0,0 +1,17 @@
+package com.learning.springbootcache.cache;
+
+import java.util.function.Predicate;
+
+/**
+ * Key of a pricePageCache entry. It names the price range, so a new car evicts only the pages of the ranges
+ * containing its price.
+ */
+public record PricePageKey(PriceRange range, String cursor, int limit) {
+
+    /**
+     * @return matches the page keys whose range contains the given price
+     */
+    public static Predicate<Object> containing(final double price) {
+        return key -> key instanceof PricePageKey page && page.range.contains(price);
+    }
+}
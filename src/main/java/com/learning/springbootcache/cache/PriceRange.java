@@ -0,0 +1,33 @@
+package com.learning.springbootcache.cache;
+
+/**
+ * Closed price interval [min, max], used as the key of the price filter cache. A range with min > max is empty.
+ */
+public record PriceRange(double min, double max) {
+
+    public boolean isEmpty() {
+        return min > max;
+    }
+
+    public boolean contains(final double price) {
+        return price >= min && price <= max;
+    }
+
+    public boolean contains(final PriceRange other) {
+        return other.min >= min && other.max <= max;
+    }
+
+    /**
+     * @return true when both ranges share at least one price, including a common bound
+     */
+    public boolean touches(final PriceRange other) {
+        return other.min <= max && other.max >= min;
+    }
+
+    /**
+     * @return the smallest range containing both ranges
+     */
+    public PriceRange span(final PriceRange other) {
+        return new PriceRange(Math.min(min, other.min), Math.max(max, other.max));
+    }
+}
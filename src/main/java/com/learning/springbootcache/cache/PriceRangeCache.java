@@ -0,0 +1,356 @@
+package com.learning.springbootcache.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.learning.springbootcache.dto.Car;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Range-aware cache for price filter results, keyed by {@link PriceRange}.
+ * <p>
+ * Cached ranges are kept disjoint: a put merges the new range with every cached range it overlaps or shares a
+ * bound with, so a query is answered by at most one cached range. A lookup for [18000, 19000] therefore hits when
+ * [17000, 22000] is cached, by slicing the superset result. Values are kept sorted by price, so a slice is two
+ * binary searches and a sub list view.
+ * <p>
+ * Expiry, refresh and size bounds come from the Caffeine builder and apply to the merged ranges. With
+ * refreshAfterWrite a lookup of an aging range returns it and lets Caffeine reload that range once in the
+ * background. The range index is only changed under a lock, lookups are lock-free.
+ * <p>
+ * A range being loaded is registered before its loader runs, so an eviction racing with the load invalidates the
+ * loaded entry instead of missing it in the index.
+ * <p>
+ * A merge writes the merged range anew, which would restart its expireAfterWrite for data absorbed from older
+ * ranges. The merged range therefore carries the age of its oldest data, and a lookup drops it once that age
+ * passes expireAfterWrite, so merging never serves cars older than the TTL. A refresh or put replaces the list
+ * and with it the carried age.
+ */
+public class PriceRangeCache extends AbstractValueAdaptingCache {
+
+    private static final Comparator<Car> BY_PRICE_THEN_ID = Comparator.comparing(Car::getPrice)
+                                                                      .thenComparing(Car::getId);
+
+    private final String name;
+
+    private final com.github.benmanes.caffeine.cache.Cache<PriceRange, List<Car>> ranges;
+
+    private final NavigableMap<Double, PriceRange> rangesByMin = new ConcurrentSkipListMap<>();
+
+    private final Set<PriceRange> loading = ConcurrentHashMap.newKeySet();
+
+    private final Map<PriceRange, CarriedAge> carriedAges = new ConcurrentHashMap<>();
+
+    private final Object mergeLock = new Object();
+
+    public PriceRangeCache(final String name, final Caffeine<Object, Object> builder) {
+        this(name, builder, null);
+    }
+
+    /**
+     * @param reloader recomputes a cached range in the background, required when the builder sets
+     *                 refreshAfterWrite and ignored otherwise
+     */
+    public PriceRangeCache(final String name, final Caffeine<Object, Object> builder,
+            final CacheLoader<PriceRange, List<Car>> reloader) {
+        super(false);
+        this.name = name;
+        final Caffeine<PriceRange, List<Car>> rangeBuilder =
+                builder.evictionListener((PriceRange range, List<Car> cars, RemovalCause cause) -> {
+                    if (range != null) {
+                        rangesByMin.remove(range.min(), range);
+                        carriedAges.remove(range);
+                    }
+                });
+        this.ranges = reloader == null ? rangeBuilder.build() : rangeBuilder.build(reloader);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<PriceRange, List<Car>> getNativeCache() {
+        return ranges;
+    }
+
+    /**
+     * One read of the cached range covering the query, the query itself when none does, so every lookup records
+     * exactly one hit or miss.
+     */
+    @Override
+    protected Object lookup(final Object key) {
+        final PriceRange range = toRange(key);
+        if (range.isEmpty()) {
+            return List.of();
+        }
+        final PriceRange holder = holder(range);
+        expireIfTooOld(holder);
+        final List<Car> cars = ranges.getIfPresent(holder);
+        return cars == null || holder.equals(range) ? cars : slice(cars, range);
+    }
+
+    /**
+     * Single-flight load through Caffeine, so concurrent misses on the same range wait for the first caller's load
+     * and the load is recorded in the cache statistics. The loaded range is then merged like a put.
+     * <p>
+     * A sub-range hit is recorded by reading its superset, anything else by the Caffeine get, once either way. Only
+     * a superset evicted between the quiet check and the read records a miss before the load's own.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final Object key, final Callable<T> valueLoader) {
+        final PriceRange range = toRange(key);
+        if (range.isEmpty()) {
+            return (T) List.of();
+        }
+        final PriceRange holder = holder(range);
+        expireIfTooOld(holder);
+        if (!holder.equals(range) && ranges.asMap().containsKey(holder)) {
+            final List<Car> superset = ranges.getIfPresent(holder);
+            if (superset != null) {
+                return (T) slice(superset, range);
+            }
+        }
+        final boolean[] loaded = { false };
+        final List<Car> value = ranges.get(range, missing -> {
+            loading.add(range);
+            try {
+                final List<Car> cars = sortedByPrice((List<Car>) valueLoader.call());
+                loaded[0] = true;
+                return cars;
+            } catch (Exception ex) {
+                loading.remove(range);
+                throw new ValueRetrievalException(key, valueLoader, ex);
+            }
+        });
+        // a hit, or a load another caller ran and merges
+        if (!loaded[0]) {
+            return (T) value;
+        }
+        synchronized (mergeLock) {
+            loading.remove(range);
+            // an eviction during the load has invalidated the entry, the caller still gets the value it waited for
+            if (ranges.asMap().get(range) == value) {
+                merge(range, value);
+            }
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void put(final Object key, final Object value) {
+        final PriceRange range = toRange(key);
+        if (range.isEmpty()) {
+            return;
+        }
+        final List<Car> cars = sortedByPrice((List<Car>) value);
+        synchronized (mergeLock) {
+            merge(range, cars);
+        }
+    }
+
+    /**
+     * Caller holds mergeLock.
+     */
+    private void merge(final PriceRange range, final List<Car> cars) {
+        PriceRange merged = range;
+        final List<Car> mergedCars = new ArrayList<>(cars);
+        final List<PriceRange> absorbed = new ArrayList<>();
+        long oldestNanos = 0;
+        for (PriceRange cached : touching(range)) {
+            if (cached.equals(range)) {
+                continue;
+            }
+            final List<Car> cachedCars = ranges.asMap().get(cached);
+            if (cachedCars == null) {
+                rangesByMin.remove(cached.min(), cached);
+                continue;
+            }
+            absorbed.add(cached);
+            oldestNanos = Math.max(oldestNanos, ageNanos(cached));
+            mergedCars.addAll(cachedCars);
+            merged = merged.span(cached);
+        }
+        absorbed.forEach(this::remove);
+        if (!merged.equals(range)) {
+            ranges.invalidate(range);
+        }
+        final List<Car> mergedValue = absorbed.isEmpty() ? cars : distinctSorted(mergedCars);
+        ranges.put(merged, mergedValue);
+        rangesByMin.put(merged.min(), merged);
+        if (oldestNanos > 0) {
+            carriedAges.put(merged, new CarriedAge(mergedValue, oldestNanos));
+        } else {
+            carriedAges.remove(merged);
+        }
+    }
+
+    /**
+     * @return how long ago the oldest cars of the range were loaded, 0 without expireAfterWrite
+     */
+    private long ageNanos(final PriceRange range) {
+        final OptionalLong written = ranges.policy()
+                                           .expireAfterWrite()
+                                           .map(expiry -> expiry.ageOf(range, TimeUnit.NANOSECONDS))
+                                           .orElse(OptionalLong.empty());
+        if (written.isEmpty()) {
+            return 0;
+        }
+        final CarriedAge carried = carriedAges.get(range);
+        return written.getAsLong() + (carried != null && carried.cars() == ranges.asMap().get(range)
+                ? carried.nanos()
+                : 0);
+    }
+
+    private void expireIfTooOld(final PriceRange range) {
+        if (!carriedAges.containsKey(range)) {
+            return;
+        }
+        final long expiresAfter = ranges.policy()
+                                        .expireAfterWrite()
+                                        .map(expiry -> expiry.getExpiresAfter(TimeUnit.NANOSECONDS))
+                                        .orElse(Long.MAX_VALUE);
+        if (ageNanos(range) >= expiresAfter) {
+            synchronized (mergeLock) {
+                remove(range);
+            }
+        }
+    }
+
+    @Override
+    public void evict(final Object key) {
+        final PriceRange range = toRange(key);
+        synchronized (mergeLock) {
+            remove(range);
+        }
+    }
+
+    /**
+     * Evicts the cached range containing the given price, ranges are disjoint so there is at most one, and every
+     * range still loading that contains it. Invalidating a loading range waits for its load to finish.
+     */
+    public void evictContaining(final double price) {
+        synchronized (mergeLock) {
+            final Map.Entry<Double, PriceRange> floor = rangesByMin.floorEntry(price);
+            if (floor != null && floor.getValue().contains(price)) {
+                remove(floor.getValue());
+            }
+            for (PriceRange range : loading) {
+                if (range.contains(price)) {
+                    ranges.invalidate(range);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (mergeLock) {
+            loading.forEach(ranges::invalidate);
+            ranges.invalidateAll();
+            rangesByMin.clear();
+            carriedAges.clear();
+        }
+    }
+
+    /**
+     * @return the indexed range containing the given one, which cached ranges being disjoint is at most one, or
+     * the range itself
+     */
+    private PriceRange holder(final PriceRange range) {
+        final Map.Entry<Double, PriceRange> floor = rangesByMin.floorEntry(range.min());
+        return floor != null && floor.getValue().contains(range) ? floor.getValue() : range;
+    }
+
+    private void remove(final PriceRange range) {
+        ranges.invalidate(range);
+        rangesByMin.remove(range.min(), range);
+        carriedAges.remove(range);
+    }
+
+    /**
+     * @return the cached ranges overlapping or sharing a bound with the given range
+     */
+    private List<PriceRange> touching(final PriceRange range) {
+        final List<PriceRange> result = new ArrayList<>();
+        final Map.Entry<Double, PriceRange> floor = rangesByMin.lowerEntry(range.min());
+        if (floor != null && floor.getValue().touches(range)) {
+            result.add(floor.getValue());
+        }
+        result.addAll(rangesByMin.subMap(range.min(), true, range.max(), true).values());
+        return result;
+    }
+
+    private static PriceRange toRange(final Object key) {
+        if (key instanceof PriceRange range) {
+            return range;
+        }
+        throw new IllegalArgumentException("priceFilterCache keys must be PriceRange instances, got " + key);
+    }
+
+    private static List<Car> slice(final List<Car> sortedCars, final PriceRange range) {
+        final int from = firstIndexAbove(sortedCars, range.min(), true);
+        final int to = firstIndexAbove(sortedCars, range.max(), false);
+        return Collections.unmodifiableList(sortedCars.subList(from, Math.max(from, to)));
+    }
+
+    /**
+     * Binary search for the first car priced at or above (inclusive) or strictly above (exclusive) the given price.
+     */
+    private static int firstIndexAbove(final List<Car> sortedCars, final double price, final boolean inclusive) {
+        int low = 0;
+        int high = sortedCars.size();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final double midPrice = sortedCars.get(mid).getPrice();
+            if (midPrice < price || (!inclusive && midPrice == price)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static List<Car> sortedByPrice(final List<Car> cars) {
+        for (int i = 1; i < cars.size(); i++) {
+            if (BY_PRICE_THEN_ID.compare(cars.get(i - 1), cars.get(i)) > 0) {
+                return distinctSorted(new ArrayList<>(cars));
+            }
+        }
+        return cars;
+    }
+
+    private static List<Car> distinctSorted(final List<Car> cars) {
+        cars.sort(BY_PRICE_THEN_ID);
+        final List<Car> result = new ArrayList<>(cars.size());
+        for (Car car : cars) {
+            if (result.isEmpty() || !result.get(result.size() - 1).getId().equals(car.getId())) {
+                result.add(car);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Age the oldest cars of a merged range had when it was written, valid while the range still holds that list
+     */
+    private record CarriedAge(List<Car> cars, long nanos) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.learning.springbootcache.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.learning.springbootcache.dto.Car;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Two-tier cache: a small on-heap Caffeine L1 in front of a large {@link OffHeapStore} L2.
+ * <p>
+ * Entries the L1 evicts for size are demoted to the L2 instead of being dropped, and an L1 miss that hits the L2
+ * promotes the entry back to the L1 and removes it from the L2, so an entry lives in one tier at a time. Expired
+ * L1 entries are not demoted. Puts and evictions change both tiers inside the L1's atomic operation on the key,
+ * and clears block promotions, so an invalidated key cannot come back from the L2.
+ * <p>
+ * A demoted entry keeps the age it had in the L1, so the L2 expires it expireAfterWrite after it was loaded, not
+ * after it was demoted. With refreshAfterWrite a promoted entry is refreshed by the L1 like any other entry.
+ * <p>
+ * Only the L1 is the native cache, statistics, tuning and snapshots cover it alone, the L2 publishes its own
+ * cache.offheap.* meters.
+ */
+public class TieredCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> l1;
+
+    private final OffHeapStore l2;
+
+    /**
+     * Shared by promotions, exclusive for clear. The eviction listener never takes it, so it is always acquired
+     * before any Caffeine or L2 lock.
+     */
+    private final ReadWriteLock clearLock = new ReentrantReadWriteLock();
+
+    /**
+     * @param reloader recomputes an L1 entry in the background, required when the builder sets refreshAfterWrite
+     *                 and ignored otherwise
+     */
+    @SuppressWarnings("unchecked")
+    public TieredCache(final String name, final Caffeine<Object, Object> builder,
+            final CacheLoader<Object, Object> reloader, final OffHeapStore l2) {
+        super(false);
+        this.name = name;
+        this.l2 = l2;
+        final Caffeine<Object, Object> l1Builder =
+                builder.evictionListener((Object key, Object value, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE && key != null && value instanceof List<?> cars) {
+                        l2.put(key, (List<Car>) cars, writeAgeNanos(key));
+                    }
+                });
+        this.l1 = reloader == null ? l1Builder.build() : l1Builder.build(reloader);
+    }
+
+    /**
+     * Read in the eviction listener, which runs while the evicted entry is still in the L1's map
+     *
+     * @return the age of the key's L1 entry, 0 when unknown or the L1 has no expireAfterWrite
+     */
+    private long writeAgeNanos(final Object key) {
+        return this.l1.policy()
+                      .expireAfterWrite()
+                      .map(expiry -> expiry.ageOf(key, TimeUnit.NANOSECONDS).orElse(0))
+                      .orElse(0L);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getNativeCache() {
+        return l1;
+    }
+
+    public OffHeapStore getOffHeapStore() {
+        return l2;
+    }
+
+    /**
+     * An L2 entry is promoted quietly first, so the one L1 read records a hit for it and a miss only when neither
+     * tier has the key.
+     */
+    @Override
+    protected Object lookup(final Object key) {
+        if (!l1.asMap().containsKey(key)) {
+            promote(key);
+        }
+        return l1.getIfPresent(key);
+    }
+
+    /**
+     * Single-flight load through the L1 on a miss in both tiers, concurrent misses on the same key wait for the
+     * first caller's load. Recorded once, by the L1 get.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(final Object key, final Callable<T> valueLoader) {
+        if (!l1.asMap().containsKey(key)) {
+            promote(key);
+        }
+        return (T) fromStoreValue(l1.get(key, missing -> {
+            try {
+                return toStoreValue(valueLoader.call());
+            } catch (Exception ex) {
+                throw new ValueRetrievalException(key, valueLoader, ex);
+            }
+        }));
+    }
+
+    /**
+     * The L2 copy is dropped inside the L1's compute, so a size eviction of the old value, which demotes it, cannot
+     * run between the two.
+     */
+    @Override
+    public void put(final Object key, final Object value) {
+        final Object storeValue = toStoreValue(value);
+        l1.asMap().compute(key, (k, current) -> {
+            l2.remove(k);
+            return storeValue;
+        });
+    }
+
+    @Override
+    public void evict(final Object key) {
+        l1.asMap().compute(key, (k, current) -> {
+            l2.remove(k);
+            return null;
+        });
+    }
+
+    /**
+     * The L1 is emptied first: an entry it evicts for size while being cleared is demoted before invalidateAll
+     * returns, and the L2 clear after it drops those too. Promotions wait for both.
+     */
+    @Override
+    public void clear() {
+        clearLock.writeLock().lock();
+        try {
+            l1.invalidateAll();
+            l2.clear();
+        } finally {
+            clearLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the key from the L2 to the L1 inside the L1's compute, which evict and put also go through, so the
+     * promoted value is never one they have already replaced.
+     */
+    private Object promote(final Object key) {
+        clearLock.readLock().lock();
+        try {
+            return l1.asMap().compute(key, (missing, current) -> current != null ? current : l2.take(missing));
+        } finally {
+            clearLock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.learning.springbootcache.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Datagram transport: every batch is sent as one UDP datagram to each configured peer, and a daemon thread
+ * receives the peers' datagrams on the local port. Batches are kept below a typical MTU so they are not
+ * fragmented, a larger batch is rejected on send, and a datagram that would not fit the receive buffer is dropped
+ * instead of being decoded truncated. There are no acknowledgements or retries.
+ */
+@Slf4j
+public class UdpTransport implements InvalidationTransport {
+
+    static final int MAX_DATAGRAM_BYTES = 1400;
+
+    private final DatagramSocket socket;
+
+    private final List<InetSocketAddress> peers;
+
+    /**
+     * @param bindAddress the local address to listen on, null for every interface
+     */
+    public UdpTransport(final InetAddress bindAddress, final int port, final List<InetSocketAddress> peers) {
+        try {
+            this.socket = new DatagramSocket(new InetSocketAddress(bindAddress, port));
+        } catch (SocketException e) {
+            throw new UncheckedIOException("Cannot listen for invalidations on UDP " + bindAddress + ":" + port, e);
+        }
+        this.peers = List.copyOf(peers);
+    }
+
+    /**
+     * @param peers host:port of every other node
+     */
+    public static List<InetSocketAddress> parsePeers(final List<String> peers) {
+        return peers.stream()
+                    .map(peer -> {
+                        final int colon = peer.lastIndexOf(':');
+                        if (colon < 0) {
+                            throw new IllegalArgumentException("Invalidation peer " + peer + " is not host:port");
+                        }
+                        return new InetSocketAddress(peer.substring(0, colon),
+                                Integer.parseInt(peer.substring(colon + 1)));
+                    })
+                    .toList();
+    }
+
+    @Override
+    public void start(final Consumer<byte[]> receiver) {
+        final Thread receiverThread = new Thread(() -> receive(receiver), "cache-invalidation-receiver");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    @Override
+    public void send(final byte[] batch) {
+        if (batch.length > MAX_DATAGRAM_BYTES) {
+            throw new IllegalArgumentException("An invalidation batch of " + batch.length
+                    + " bytes does not fit a datagram of " + MAX_DATAGRAM_BYTES);
+        }
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(batch, batch.length, peer));
+            } catch (IOException e) {
+                log.warn("Cannot send invalidations to {}", peer, e);
+            }
+        }
+    }
+
+    @Override
+    public int maxMessageBytes() {
+        return MAX_DATAGRAM_BYTES;
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+
+    public int getLocalPort() {
+        return socket.getLocalPort();
+    }
+
+    private void receive(final Consumer<byte[]> receiver) {
+        // one byte more than a batch can have, so a longer datagram shows up as filling the buffer
+        final byte[] buffer = new byte[MAX_DATAGRAM_BYTES + 1];
+        while (!socket.isClosed()) {
+            final DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                if (packet.getLength() > MAX_DATAGRAM_BYTES) {
+                    log.warn("Dropped an oversized invalidation datagram from {}", packet.getSocketAddress());
+                    continue;
+                }
+                receiver.accept(Arrays.copyOf(packet.getData(), packet.getLength()));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    log.warn("Cannot receive invalidations", e);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Dropped an invalid invalidation batch from {}", packet.getSocketAddress(), e);
+            }
+        }
+    }
+}
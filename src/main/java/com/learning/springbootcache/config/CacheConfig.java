@@ -1,6 +1,24 @@
 package com.learning.springbootcache.config;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.learning.springbootcache.cache.CarListWeigher;
+import com.learning.springbootcache.cache.MeteredStatsCounter;
+import com.learning.springbootcache.cache.OffHeapStore;
+import com.learning.springbootcache.cache.BrandPageKey;
+import com.learning.springbootcache.cache.PricePageKey;
+import com.learning.springbootcache.cache.PriceRange;
+import com.learning.springbootcache.cache.PriceRangeCache;
+import com.learning.springbootcache.cache.TieredCache;
+import com.learning.springbootcache.repository.CarRepository;
+import com.learning.springbootcache.util.CompactKeyGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCache;
@@ -12,31 +30,77 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 @EnableCaching
+@RequiredArgsConstructor
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
+    public static final String BRAND_FILTER_CACHE_MANAGER = "brandFilterCacheManager";
+
+    public static final String PRICE_FILTER_CACHE_MANAGER = "priceFilterCacheManager";
+
+    private final CacheProperties cacheProperties;
+
+    private final CarRepository carRepository;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * 5.3 Creating a Custom KeyGenerator for Cache Key
+     * Typed keys with precomputed hashes instead of target + method.getName() + Arrays.toString(params), see
+     * KeyGeneratorBenchmark for the comparison. Meant for caches keyed by their whole parameter list, no cache here
+     * uses it: priceFilterCache needs PriceRange keys, brandFilterCache is keyed by the brand itself, which its
+     * evictions, snapshots and the invalidation bus rely on, and the page caches need the brand or range readable in
+     * their keys for CarCacheInvalidator.
+     */
     @Bean("keyGenerator")
     public KeyGenerator keyGenerator() {
-        return (target, method, params) -> target + method.getName() + Arrays.toString(params);
+        return new CompactKeyGenerator();
+    }
+
+    /**
+     * Keys the price filter cache by {@link PriceRange}, so {@link PriceRangeCache} can answer sub-range queries
+     */
+    @Bean("priceRangeKeyGenerator")
+    public KeyGenerator priceRangeKeyGenerator() {
+        return (target, method, params) -> new PriceRange((Double) params[0], (Double) params[1]);
+    }
+
+    /**
+     * Keys pricePageCache by {@link PricePageKey}, so a new car evicts only the pages of ranges containing its price
+     */
+    @Bean("pricePageKeyGenerator")
+    public KeyGenerator pricePageKeyGenerator() {
+        return (target, method, params) -> new PricePageKey(new PriceRange((Double) params[0], (Double) params[1]),
+                (String) params[2], (Integer) params[3]);
+    }
+
+    /**
+     * Keys brandPageCache by {@link BrandPageKey}, so a new car evicts only the pages of its brand
+     */
+    @Bean("brandPageKeyGenerator")
+    public KeyGenerator brandPageKeyGenerator() {
+        return (target, method, params) -> new BrandPageKey((String) params[0], (String) params[1],
+                (Integer) params[2]);
     }
 
     /**
      * 5.4 Setting a Different Config for Each Cache by Using CacheManager Attribute
+     * Each manager holds the caches configured for it under app.cache.caches, see CacheProperties.
      */
-    @Bean("brandFilterCacheManager")
+    @Bean(BRAND_FILTER_CACHE_MANAGER)
     @Primary
     public CacheManager brandCacheManager() {
-        return getCacheManager("brandFilterCache", 10,1);
+        return getCacheManager(BRAND_FILTER_CACHE_MANAGER);
     }
 
-    @Bean("priceFilterCacheManager")
+    @Bean(PRICE_FILTER_CACHE_MANAGER)
     public CacheManager priceCacheManager() {
-        return getCacheManager("priceFilterCache", 2, 3);
+        return getCacheManager(PRICE_FILTER_CACHE_MANAGER);
     }
 
     /**
@@ -48,23 +112,95 @@ public class CacheConfig {
         return new NamedCacheResolver(priceCacheManager(), "priceFilterCache");
     }
 
-    private CacheManager getCacheManager(final String cacheManager, final int secondsExpiry, final long entriesSize) {
-
-        final CaffeineCache cache = buildCache(cacheManager, secondsExpiry, entriesSize);
+    private CacheManager getCacheManager(final String cacheManager) {
+        final List<Cache> caches = new ArrayList<>();
+        cacheProperties.getCaches().forEach((cacheName, settings) -> {
+            if (!List.of(BRAND_FILTER_CACHE_MANAGER, PRICE_FILTER_CACHE_MANAGER).contains(settings.getCacheManager())) {
+                throw new IllegalStateException("Cache " + cacheName + " refers to unknown cache manager "
+                        + settings.getCacheManager());
+            }
+            if (cacheManager.equals(settings.getCacheManager())) {
+                caches.add(buildCache(cacheName, settings, cacheManager));
+            }
+        });
         final SimpleCacheManager manager = new SimpleCacheManager();
-        manager.setCaches(Collections.singleton(cache));
+        manager.setCaches(caches);
         return manager;
+    }
 
+    /**
+     * A refreshing cache is built as a LoadingCache, the loader recomputes a key in the background when it passes
+     * refreshAfterWrite. Caffeine runs at most one load per key, concurrent readers keep the old value meanwhile.
+     */
+    private Cache buildCache(final String cacheName, final CacheSettings settings, final String cacheManager) {
+        if (settings.isTiered() && settings.getType() != CacheSettings.Type.CAFFEINE) {
+            throw new IllegalStateException("off-heap-size is set for " + cacheName
+                    + " but only caffeine caches can be tiered");
+        }
+        final Caffeine<Object, Object> caffeine = buildCaffeine(cacheName, settings, cacheManager);
+        return switch (settings.getType()) {
+            case PRICE_RANGE -> new PriceRangeCache(cacheName, caffeine,
+                    settings.isRefreshing()
+                            ? range -> carRepository.findByPriceBetween(range.min(), range.max())
+                            : null);
+            case CAFFEINE -> settings.isTiered()
+                    ? new TieredCache(cacheName, caffeine, settings.isRefreshing() ? reloader(cacheName) : null,
+                            offHeapStore(cacheName, settings))
+                    : new CaffeineCache(cacheName,
+                            settings.isRefreshing() ? caffeine.build(reloader(cacheName)) : caffeine.build());
+        };
     }
 
-    private CaffeineCache buildCache(final String cacheName, final int secondsExpiry, final long entriesSize) {
-        return new CaffeineCache(
-                cacheName,
-                Caffeine
-                        .newBuilder()
-                        .expireAfterWrite(secondsExpiry, TimeUnit.SECONDS)
-                        .maximumSize(entriesSize)
-                        .build()
-        );
+    /**
+     * Off-heap L2 of a TieredCache, a single direct buffer of offHeapSize bytes. CarCodec only encodes brand keys,
+     * so only brandFilterCache can be tiered, the page caches' entries would never be demoted.
+     */
+    private OffHeapStore offHeapStore(final String cacheName, final CacheSettings settings) {
+        if (!"brandFilterCache".equals(cacheName)) {
+            throw new IllegalStateException("off-heap-size is set for " + cacheName
+                    + " but its keys cannot be stored off-heap, only brandFilterCache can be tiered");
+        }
+        final long bytes = settings.getOffHeapSize().toBytes();
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("off-heap-size of " + cacheName + " is " + settings.getOffHeapSize()
+                    + ", at most 2GB is supported");
+        }
+        return new OffHeapStore((int) bytes, settings.getExpireAfterWrite(), Ticker.systemTicker());
+    }
+
+    private CacheLoader<Object, Object> reloader(final String cacheName) {
+        if ("brandFilterCache".equals(cacheName)) {
+            return key -> carRepository.findByBrand((String) key);
+        }
+        throw new IllegalStateException("refresh-after-write is set for " + cacheName
+                + " but there is no reloader for it, only brandFilterCache and price-range caches can refresh");
+    }
+
+    /**
+     * Every cache records statistics, load latencies go to a histogram as well, see MeteredStatsCounter
+     */
+    private Caffeine<Object, Object> buildCaffeine(final String cacheName, final CacheSettings settings,
+            final String cacheManager) {
+        final MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        final Caffeine<Object, Object> caffeine = Caffeine
+                .newBuilder()
+                .recordStats(() -> new MeteredStatsCounter(registry, cacheName,
+                        CacheMetricsConfig.cacheManagerTag(cacheManager)));
+        if (settings.getExpireAfterWrite() != null) {
+            caffeine.expireAfterWrite(settings.getExpireAfterWrite());
+        }
+        if (settings.getInitialCapacity() > 0) {
+            caffeine.initialCapacity(settings.getInitialCapacity());
+        }
+        if (settings.isWeighted()) {
+            caffeine.maximumWeight(settings.getMaximumWeight().toBytes())
+                    .weigher(new CarListWeigher(settings.getEstimatedCarBytes()));
+        } else {
+            caffeine.maximumSize(settings.getMaximumSize());
+        }
+        if (settings.isRefreshing()) {
+            caffeine.refreshAfterWrite(settings.getRefreshAfterWrite());
+        }
+        return caffeine;
     }
 }
@@ -0,0 +1,44 @@
+package com.learning.springbootcache.config;
+
+import com.learning.springbootcache.cache.PriceRangeCache;
+import com.learning.springbootcache.cache.TieredCache;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring Boot binds hit, miss, eviction and size meters for every CaffeineCache of every CacheManager bean, tagged
+ * by cache and cache.manager. PriceRangeCache is not a CaffeineCache, this provider binds its Caffeine store the
+ * same way. A TieredCache binds its L1 the same way plus the cache.offheap.* meters of its L2.
+ */
+@Configuration
+public class CacheMetricsConfig {
+
+    private static final String CACHE_MANAGER_SUFFIX = "cachemanager";
+
+    @Bean
+    public CacheMeterBinderProvider<PriceRangeCache> priceRangeCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(cache.getNativeCache(), cache.getName(), tags);
+    }
+
+    @Bean
+    public CacheMeterBinderProvider<TieredCache> tieredCacheMeterBinderProvider() {
+        return (cache, tags) -> registry -> {
+            new CaffeineCacheMetrics<>(cache.getNativeCache(), cache.getName(), tags).bindTo(registry);
+            cache.getOffHeapStore().bindTo(registry, cache.getName(), tags);
+        };
+    }
+
+    /**
+     * Same cache.manager tag value Spring Boot derives from a CacheManager bean name, brandFilterCacheManager
+     * becomes brandFilter
+     */
+    public static String cacheManagerTag(final String beanName) {
+        if (beanName.length() > CACHE_MANAGER_SUFFIX.length()
+                && beanName.toLowerCase().endsWith(CACHE_MANAGER_SUFFIX)) {
+            return beanName.substring(0, beanName.length() - CACHE_MANAGER_SUFFIX.length());
+        }
+        return beanName;
+    }
+}
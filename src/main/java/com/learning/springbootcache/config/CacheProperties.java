@@ -0,0 +1,172 @@
+package com.learning.springbootcache.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named cache tuning, app.cache.caches.&lt;cacheName&gt;.*
+ * <p>
+ * Any name adds a cache to its cacheManager. The built-in brandFilterCache, priceFilterCache, brandPageCache and
+ * pricePageCache entries are only used when app.cache.caches is not configured at all. A configured map replaces
+ * them, so keep all four names in it, CarService expects those caches.
+ * <p>
+ * Warm restart snapshots, app.cache.snapshot.*
+ * <p>
+ * Pre-serialized response bodies for cache hits, app.cache.encoded-responses.*
+ * <p>
+ * Cross-node invalidation, app.cache.bus.*
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties implements InitializingBean {
+
+    /**
+     * Bound from app.cache.caches, Spring Boot merges into the existing map, so it starts empty and the built-in
+     * caches are only added in afterPropertiesSet when nothing was bound.
+     */
+    private Map<String, CacheSettings> caches = new LinkedHashMap<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        if (caches.isEmpty()) {
+            caches.putAll(defaultCaches());
+        }
+    }
+
+    static Map<String, CacheSettings> defaultCaches() {
+        final Map<String, CacheSettings> defaults = new LinkedHashMap<>();
+        defaults.put("brandFilterCache", CacheSettings.builder()
+                                                      .cacheManager(CacheConfig.BRAND_FILTER_CACHE_MANAGER)
+                                                      .expireAfterWrite(Duration.ofSeconds(10))
+                                                      .refreshAfterWrite(Duration.ofSeconds(5))
+                                                      .maximumWeight(DataSize.ofMegabytes(32))
+                                                      .build());
+        defaults.put("priceFilterCache", CacheSettings.builder()
+                                                      .cacheManager(CacheConfig.PRICE_FILTER_CACHE_MANAGER)
+                                                      .type(CacheSettings.Type.PRICE_RANGE)
+                                                      .expireAfterWrite(Duration.ofSeconds(2))
+                                                      .refreshAfterWrite(Duration.ofSeconds(1))
+                                                      .maximumWeight(DataSize.ofMegabytes(16))
+                                                      .build());
+        defaults.put("brandPageCache", CacheSettings.builder()
+                                                    .cacheManager(CacheConfig.BRAND_FILTER_CACHE_MANAGER)
+                                                    .expireAfterWrite(Duration.ofSeconds(10))
+                                                    .maximumWeight(DataSize.ofMegabytes(16))
+                                                    .build());
+        defaults.put("pricePageCache", CacheSettings.builder()
+                                                    .cacheManager(CacheConfig.PRICE_FILTER_CACHE_MANAGER)
+                                                    .expireAfterWrite(Duration.ofSeconds(2))
+                                                    .maximumWeight(DataSize.ofMegabytes(16))
+                                                    .build());
+        return defaults;
+    }
+
+    private Snapshot snapshot = new Snapshot();
+
+    @Getter
+    @Setter
+    public static class Snapshot {
+
+        /**
+         * Writes the hot entries of the snapshot caches on shutdown and loads them back on startup.
+         */
+        private boolean enabled;
+
+        private Path path = Path.of("cache-snapshot.bin");
+
+        /**
+         * Also writes a snapshot at this rate, so a crash loses at most one interval, unset writes on shutdown only.
+         */
+        private Duration interval;
+
+        /**
+         * Older snapshots are ignored on startup, the catalog may have moved on since they were written.
+         */
+        private Duration maxAge = Duration.ofMinutes(10);
+
+        /**
+         * Per cache limit on the number of hottest entries written.
+         */
+        private int maxEntries = 10_000;
+
+        private List<String> caches = List.of("brandFilterCache", "priceFilterCache");
+    }
+
+    private EncodedResponses encodedResponses = new EncodedResponses();
+
+    @Getter
+    @Setter
+    public static class EncodedResponses {
+
+        /**
+         * Serves the price and brand filters from cached JSON bytes with an ETag, instead of serializing every hit.
+         */
+        private boolean enabled;
+
+        /**
+         * Also keeps a gzip encoding of bodies of at least gzipMinSize, served when the client accepts gzip.
+         */
+        private boolean gzip = true;
+
+        private DataSize gzipMinSize = DataSize.ofKilobytes(1);
+
+        private DataSize maximumWeight = DataSize.ofMegabytes(64);
+    }
+
+    private Bus bus = new Bus();
+
+    @Getter
+    @Setter
+    public static class Bus {
+
+        public enum Transport {
+            LOOPBACK,
+            UDP
+        }
+
+        /**
+         * Broadcasts local evictions and puts to the peer nodes, which evict the same keys.
+         */
+        private boolean enabled;
+
+        private Transport transport = Transport.UDP;
+
+        /**
+         * Invalidations are batched and coalesced for this long before they are sent.
+         */
+        private Duration flushInterval = Duration.ofMillis(20);
+
+        /**
+         * A batch is sent early once it holds this many distinct invalidations.
+         */
+        private int maxBatchSize = 512;
+
+        /**
+         * Address the UDP socket is bound to, loopback by default so the port is not exposed on every interface.
+         * Set it to the node's address on the cluster network.
+         */
+        private InetAddress bindAddress = InetAddress.getLoopbackAddress();
+
+        /**
+         * UDP port this node listens on.
+         */
+        private int port = 9099;
+
+        /**
+         * UDP peers as host:port, every other node of the cluster.
+         */
+        private List<String> peers = new ArrayList<>();
+    }
+}
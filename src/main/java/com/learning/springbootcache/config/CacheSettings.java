@@ -0,0 +1,69 @@
+package com.learning.springbootcache.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Tuning of a single named cache, bound from app.cache.caches.&lt;name&gt; (see CacheProperties).
+ * <p>
+ * cacheManager is the bean name of the CacheManager holding the cache. type selects the implementation: a plain
+ * CaffeineCache, or a PriceRangeCache for caches keyed by PriceRange.
+ * <p>
+ * expireAfterWrite is the hard TTL, an entry is never served after it, without it entries do not expire.
+ * refreshAfterWrite is the optional soft TTL: the first read of an older entry still returns it and starts one
+ * asynchronous reload for that key (stale-while-revalidate). It must be shorter than expireAfterWrite to have any
+ * effect.
+ * <p>
+ * A cache is bounded by maximumWeight, its estimated retained heap, when that is set and by maximumSize entries
+ * otherwise (1000 by default). The weight of an entry is estimated from its list length and estimatedCarBytes,
+ * see CarListWeigher.
+ * <p>
+ * offHeapSize turns a caffeine cache into a TieredCache: the cache above becomes its on-heap L1, and entries it
+ * evicts for size move to an off-heap L2 of this many bytes instead of being dropped. Only brandFilterCache can be
+ * tiered.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheSettings {
+
+    public enum Type {
+        CAFFEINE,
+        PRICE_RANGE
+    }
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 1_000;
+
+    @Builder.Default
+    private String cacheManager = CacheConfig.BRAND_FILTER_CACHE_MANAGER;
+    @Builder.Default
+    private Type type = Type.CAFFEINE;
+    private int initialCapacity;
+    private Duration expireAfterWrite;
+    private Duration refreshAfterWrite;
+    @Builder.Default
+    private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private DataSize maximumWeight;
+    private int estimatedCarBytes;
+    private DataSize offHeapSize;
+
+    public boolean isRefreshing() {
+        return refreshAfterWrite != null && !refreshAfterWrite.isZero();
+    }
+
+    public boolean isTiered() {
+        return offHeapSize != null && offHeapSize.toBytes() > 0;
+    }
+
+    public boolean isWeighted() {
+        return maximumWeight != null && maximumWeight.toBytes() > 0;
+    }
+}
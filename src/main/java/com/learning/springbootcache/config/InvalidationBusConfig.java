@@ -0,0 +1,29 @@
+package com.learning.springbootcache.config;
+
+import com.learning.springbootcache.cache.InvalidationTransport;
+import com.learning.springbootcache.cache.LoopbackTransport;
+import com.learning.springbootcache.cache.UdpTransport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Transport of the InvalidationBus, app.cache.bus.transport: udp (default) or loopback.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.cache.bus", name = "enabled", havingValue = "true")
+public class InvalidationBusConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache.bus", name = "transport", havingValue = "udp", matchIfMissing = true)
+    public InvalidationTransport udpInvalidationTransport(final CacheProperties cacheProperties) {
+        final CacheProperties.Bus bus = cacheProperties.getBus();
+        return new UdpTransport(bus.getBindAddress(), bus.getPort(), UdpTransport.parsePeers(bus.getPeers()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache.bus", name = "transport", havingValue = "loopback")
+    public InvalidationTransport loopbackInvalidationTransport() {
+        return new LoopbackTransport(LoopbackTransport.Network.DEFAULT);
+    }
+}
@@ -0,0 +1,88 @@
+package com.learning.springbootcache.controller;
+
+import com.learning.springbootcache.config.CacheSettings;
+import com.learning.springbootcache.dto.CachePolicy;
+import com.learning.springbootcache.dto.CacheStatistics;
+import com.learning.springbootcache.service.CacheStatsService;
+import com.learning.springbootcache.service.CacheTuningService;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Cache statistics and live tuning of the car caches. The statistics are also exported as Micrometer meters
+ * through /actuator/metrics, tagged by cache and cache.manager.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(value = "/cars", produces = MediaType.APPLICATION_JSON_VALUE)
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class CacheController {
+
+    CacheStatsService cacheStatsService;
+
+    CacheTuningService cacheTuningService;
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<List<CacheStatistics>> getCacheStatistics() {
+        return ResponseEntity.ok(cacheStatsService.getCacheStatistics());
+    }
+
+    @GetMapping("/cache-admin/{cacheName}")
+    public ResponseEntity<CachePolicy> getCachePolicy(@PathVariable final String cacheName) {
+        return ResponseEntity.ok(cacheTuningService.getPolicy(cacheName));
+    }
+
+    /**
+     * Changes the bounds of a running cache, values use the application.yaml syntax, e.g.
+     * PUT /cars/cache-admin/brandFilterCache?maximumWeight=64MB&amp;expireAfterWrite=30s
+     */
+    @PutMapping("/cache-admin/{cacheName}")
+    public ResponseEntity<CachePolicy> tuneCache(@PathVariable final String cacheName,
+            @RequestParam(required = false) final Long maximumSize,
+            @RequestParam(required = false) final String maximumWeight,
+            @RequestParam(required = false) final String expireAfterWrite,
+            @RequestParam(required = false) final String refreshAfterWrite) {
+        final CacheSettings changes = CacheSettings.builder()
+                                                   .maximumSize(maximumSize == null ? 0 : maximumSize)
+                                                   .maximumWeight(parseDataSize(maximumWeight))
+                                                   .expireAfterWrite(parseDuration(expireAfterWrite))
+                                                   .refreshAfterWrite(parseDuration(refreshAfterWrite))
+                                                   .build();
+        return ResponseEntity.ok(cacheTuningService.tune(cacheName, changes));
+    }
+
+    private static DataSize parseDataSize(final String value) {
+        return value == null ? null : DataSize.parse(value);
+    }
+
+    private static Duration parseDuration(final String value) {
+        return value == null ? null : DurationStyle.detectAndParse(value);
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<String> handleUnknownCache(final NoSuchElementException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleUnsupportedChange(final IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+}
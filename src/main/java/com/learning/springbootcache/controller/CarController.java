@@ -1,12 +1,21 @@
 package com.learning.springbootcache.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.learning.springbootcache.cache.EncodedResponseCache;
+import com.learning.springbootcache.cache.PriceRange;
 import com.learning.springbootcache.dto.Car;
+import com.learning.springbootcache.dto.CarPage;
 import com.learning.springbootcache.service.CarService;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -14,8 +23,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * https://youlearncode.com/spring-boot-cache/
@@ -28,17 +44,66 @@ import java.util.List;
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class CarController {
 
+    static final int MAX_PAGE_SIZE = 1_000;
+
+    static final int STREAM_FLUSH_EVERY = 256;
+
     CarService carService;
 
+    EncodedResponseCache encodedResponseCache;
+
+    ObjectMapper objectMapper;
+
     @GetMapping(params = { "minPrice", "maxPrice" })
-    public ResponseEntity<List<Car>> getAllFilteredByPrice(@RequestParam final Double minPrice,
-            @RequestParam final Double maxPrice) {
-        return ResponseEntity.ok(carService.getCarsWithPriceFilter(minPrice, maxPrice));
+    public ResponseEntity<?> getAllFilteredByPrice(@RequestParam final Double minPrice,
+            @RequestParam final Double maxPrice, final WebRequest request) {
+        return ok(new PriceRange(minPrice, maxPrice), carService.getCarsWithPriceFilter(minPrice, maxPrice), request);
     }
 
     @GetMapping(params = { "brand" })
-    public ResponseEntity<List<Car>> getAllFilteredByBrand(@RequestParam final String brand) {
-        return ResponseEntity.ok(carService.getCarsWithBrandFilter(brand));
+    public ResponseEntity<?> getAllFilteredByBrand(@RequestParam final String brand, final WebRequest request) {
+        return ok(brand, carService.getCarsWithBrandFilter(brand), request);
+    }
+
+    /**
+     * Cursor pagination, e.g. GET /cars?minPrice=10000&maxPrice=50000&limit=100, then the same request with
+     * cursor=&lt;nextCursor of the previous page&gt; until nextCursor is null. limit is capped at MAX_PAGE_SIZE.
+     */
+    @GetMapping(params = { "minPrice", "maxPrice", "limit" })
+    public ResponseEntity<CarPage> getPageFilteredByPrice(@RequestParam final Double minPrice,
+            @RequestParam final Double maxPrice, @RequestParam final int limit,
+            @RequestParam(required = false) final String cursor) {
+        return ResponseEntity.ok(carService.getCarsWithPriceFilterPage(minPrice, maxPrice, cursor, pageSize(limit)));
+    }
+
+    @GetMapping(params = { "brand", "limit" })
+    public ResponseEntity<CarPage> getPageFilteredByBrand(@RequestParam final String brand,
+            @RequestParam final int limit, @RequestParam(required = false) final String cursor) {
+        return ResponseEntity.ok(carService.getCarsWithBrandFilterPage(brand, cursor, pageSize(limit)));
+    }
+
+    /**
+     * Streams the matches as newline-delimited JSON while the catalog finds them, one car per line, so memory per
+     * request stays constant however many cars match. Not cached.
+     */
+    @GetMapping(value = "/stream", params = { "minPrice", "maxPrice" }, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFilteredByPrice(@RequestParam final Double minPrice,
+            @RequestParam final Double maxPrice) {
+        return ResponseEntity.ok(out -> writeNdjson(out,
+                cars -> carService.streamCarsWithPriceFilter(minPrice, maxPrice, cars)));
+    }
+
+    @GetMapping(value = "/stream", params = { "brand" }, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFilteredByBrand(@RequestParam final String brand) {
+        return ResponseEntity.ok(out -> writeNdjson(out, cars -> carService.streamCarsWithBrandFilter(brand, cars)));
+    }
+
+    /**
+     * Several brands in one request, e.g. GET /cars?brands=Opel,VW
+     */
+    @GetMapping(params = { "brands" })
+    public ResponseEntity<Map<String, List<Car>>> getAllFilteredByBrands(@RequestParam final List<String> brands) {
+        return ResponseEntity.ok(carService.getCarsWithBrandFilters(brands));
     }
 
     /**
@@ -55,7 +120,7 @@ public class CarController {
      */
     @GetMapping(value = "/evictBrandFilterCache", params = "brands")
     public ResponseEntity<Void> evictBrandFilterCache(@RequestParam List<String> brands) {
-        brands.forEach(carService::evictSpecificCaches);
+        carService.evictBrandFilterCaches(brands);
         return ResponseEntity.noContent().build();
     }
 
@@ -65,7 +130,7 @@ public class CarController {
 
     @PutMapping(value = "/updateBrandFilterCache")
     public ResponseEntity<Void> updateBrandFilterCache(@RequestBody final List<String> brands) {
-        brands.forEach(carService::putBrandFilterCache);
+        carService.putBrandFilterCaches(brands);
         return ResponseEntity.noContent().build();
     }
 
@@ -73,4 +138,105 @@ public class CarController {
     public ResponseEntity<Car> create(@RequestBody final Car car) {
         return ResponseEntity.ok(carService.create(car));
     }
+
+    /**
+     * With app.cache.encoded-responses.enabled the cached result is written as its pre-serialized JSON, gzipped
+     * when the client accepts it, and a matching If-None-Match is answered with 304 Not Modified.
+     *
+     * @param key the filter cache key of the result
+     */
+    private ResponseEntity<?> ok(final Object key, final List<Car> cars, final WebRequest request) {
+        if (!encodedResponseCache.isEnabled()) {
+            return ResponseEntity.ok(cars);
+        }
+        final EncodedResponseCache.EncodedBody body = encodedResponseCache.get(key, cars);
+        if (request.checkNotModified(body.etag())) {
+            return null;
+        }
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                                                                  .contentType(MediaType.APPLICATION_JSON)
+                                                                  .eTag(body.etag())
+                                                                  .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (body.gzip() != null && acceptsGzip(request.getHeaderValues(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.body(body.json());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidCursor(final IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    /**
+     * @param acceptEncoding the Accept-Encoding header values, e.g. "gzip, deflate" or "br;q=1.0, *;q=0.5"
+     * @return true when gzip, or * without an explicit gzip, has a quality above 0
+     */
+    static boolean acceptsGzip(final String[] acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (final String value : acceptEncoding) {
+            for (final String coding : value.split(",")) {
+                final String[] params = coding.split(";");
+                final String name = params[0].trim();
+                if (name.equalsIgnoreCase("gzip")) {
+                    gzip = quality(params);
+                } else if (name.equals("*")) {
+                    any = quality(params);
+                }
+            }
+        }
+        final Double quality = gzip != null ? gzip : any;
+        return quality != null && quality > 0;
+    }
+
+    /**
+     * @return the q parameter among the params after the coding name, 1 when absent and 0 when malformed
+     */
+    private static double quality(final String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            final String param = params[i].trim();
+            if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static int pageSize(final int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Writes each car the producer hands over as one JSON line, flushing after the first car and then every
+     * STREAM_FLUSH_EVERY cars so the client gets the first bytes right away
+     */
+    private void writeNdjson(final OutputStream out, final Consumer<Consumer<Car>> producer) throws IOException {
+        // writeValue flushes the generator after every car unless told otherwise
+        final ObjectWriter writer = objectMapper.writerFor(Car.class)
+                                                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            final int[] written = { 0 };
+            producer.accept(car -> {
+                try {
+                    writer.writeValue(generator, car);
+                    generator.writeRaw('\n');
+                    if (written[0]++ % STREAM_FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
 }
@@ -0,0 +1,18 @@
+package com.learning.springbootcache.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class CachePolicy {
+    private String cache;
+    private Long maximumSize;
+    private Long maximumWeightBytes;
+    private Duration expireAfterWrite;
+    private Duration refreshAfterWrite;
+}
@@ -0,0 +1,26 @@
+package com.learning.springbootcache.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class CacheStatistics {
+    private String cacheManager;
+    private String cache;
+    private long estimatedSize;
+    private Long weightedSizeBytes;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+    private long evictionWeight;
+    private long loadSuccessCount;
+    private long loadFailureCount;
+    private double averageLoadPenaltyMillis;
+    private Map<String, Double> loadLatencyMillis;
+}
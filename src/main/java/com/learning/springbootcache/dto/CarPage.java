@@ -0,0 +1,19 @@
+package com.learning.springbootcache.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of a filter result. nextCursor is passed back as cursor to get the following page, it is null on the
+ * last page.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class CarPage {
+    private List<Car> items;
+    private String nextCursor;
+}
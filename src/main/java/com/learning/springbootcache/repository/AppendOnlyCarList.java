@@ -0,0 +1,52 @@
+package com.learning.springbootcache.repository;
+
+import com.learning.springbootcache.dto.Car;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Append-only list of cars with lock-free reads.
+ * <p>
+ * {@link #add(Car)} must be called by one writer at a time (the repository write lock). Every add publishes a new
+ * immutable {@link Snapshot}, so readers see a consistent prefix without locking. The backing array is only copied
+ * when it grows, and slots below a published size are never written again.
+ */
+final class AppendOnlyCarList {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private volatile Snapshot snapshot = new Snapshot(new Car[INITIAL_CAPACITY], 0);
+
+    void add(final Car car) {
+        final Snapshot current = snapshot;
+        Car[] cars = current.cars();
+        if (current.size() == cars.length) {
+            cars = Arrays.copyOf(cars, cars.length << 1);
+        }
+        cars[current.size()] = car;
+        snapshot = new Snapshot(cars, current.size() + 1);
+    }
+
+    /**
+     * @return a read-only view of the list as of this call, later adds are not visible through it
+     */
+    List<Car> view() {
+        final Snapshot current = snapshot;
+        return Collections.unmodifiableList(Arrays.asList(current.cars()).subList(0, current.size()));
+    }
+
+    void copyTo(final Collection<Car> target) {
+        final Snapshot current = snapshot;
+        target.addAll(Arrays.asList(current.cars()).subList(0, current.size()));
+    }
+
+    int size() {
+        return snapshot.size();
+    }
+
+    private record Snapshot(Car[] cars, int size) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.learning.springbootcache.repository;
+
+import com.learning.springbootcache.dto.Car;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * The car catalog behind CarService, selected by app.catalog.backend: indexed (default, see
+ * {@link IndexedCarRepository}) or columnar (see {@link ColumnarCarRepository}).
+ * <p>
+ * Every list returned is read-only and reflects the catalog as of the call, later saves are not visible through it.
+ */
+public interface CarRepository {
+
+    /**
+     * Assigns the next id to the given car and adds it to the catalog.
+     */
+    Car save(Car car);
+
+    Optional<Car> findById(Long id);
+
+    List<Car> findAll();
+
+    /**
+     * @return the cars of the given brand, ordered by id
+     */
+    List<Car> findByBrand(String brand);
+
+    /**
+     * @return the cars of each requested brand in request order, brands without cars map to an empty list
+     */
+    Map<String, List<Car>> findByBrands(Collection<String> brands);
+
+    /**
+     * @return the cars priced within [min, max], ordered by price then id, empty when min &gt; max
+     */
+    List<Car> findByPriceBetween(double min, double max);
+
+    /**
+     * One page of {@link #findByBrand(String)}.
+     *
+     * @return up to limit cars of the brand with an id above afterId, ordered by id
+     */
+    List<Car> findByBrandAfter(String brand, long afterId, int limit);
+
+    /**
+     * One page of {@link #findByPriceBetween(double, double)}.
+     *
+     * @return up to limit cars priced within [min, max] that come after (afterPrice, afterId) in price then id
+     * order, ordered the same way
+     */
+    List<Car> findByPriceBetweenAfter(double min, double max, double afterPrice, long afterId, int limit);
+
+    /**
+     * Hands every car of the brand to the action as it is found, in id order, without collecting them.
+     */
+    void forEachByBrand(String brand, Consumer<? super Car> action);
+
+    /**
+     * Hands every car priced within [min, max] to the action as it is found, without collecting them. The order is
+     * the backend's natural one: price then id for the indexed backend, id for the columnar backend.
+     */
+    void forEachByPriceBetween(double min, double max, Consumer<? super Car> action);
+
+    int count();
+}
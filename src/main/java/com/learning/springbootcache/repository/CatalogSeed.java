@@ -0,0 +1,23 @@
+package com.learning.springbootcache.repository;
+
+import com.learning.springbootcache.dto.Car;
+
+import java.util.List;
+
+/**
+ * Cars every catalog backend starts with.
+ */
+final class CatalogSeed {
+
+    private CatalogSeed() {
+    }
+
+    static List<Car> cars() {
+        return List.of(
+                new Car(null, "Astra", "Opel", 100, 18000d),
+                new Car(null, "Insignia", "Opel", 120, 22000d),
+                new Car(null, "Golf", "VW", 90, 17000d),
+                new Car(null, "Golf", "VW", 120, 19000d),
+                new Car(null, "Gallardo", "Lamborghini", 400, 100_000d));
+    }
+}
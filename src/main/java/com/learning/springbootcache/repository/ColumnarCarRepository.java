@@ -0,0 +1,428 @@
+package com.learning.springbootcache.repository;
+
+import com.learning.springbootcache.dto.Car;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Struct-of-arrays car catalog, app.catalog.backend=columnar.
+ * <p>
+ * Each field is a primitive column indexed by row: long ids, double prices, int horses, and brand and model as
+ * int codes into a {@link Dictionary}, so a million cars are a handful of arrays instead of a million beans with
+ * boxed fields and repeated strings. Brand and price filters are tight loops over one primitive column and build
+ * {@link Car} objects for the matching rows only. A missing price is stored as NaN and never matches a range, a
+ * missing brand or model as code -1 and missing horses as {@link #NO_HORSES}.
+ * <p>
+ * There are no secondary indexes, every filter is an O(n) scan, traded for far less memory and pointer chasing
+ * than {@link IndexedCarRepository}. Concurrency follows AppendOnlyCarList: one writer at a time under a short
+ * lock appends a row to the columns and publishes a new immutable {@link Columns} snapshot, readers scan the
+ * snapshot they read without locking. Arrays are only copied when they grow, rows below a published size are
+ * never written again. Returned cars are copies, changing them does not change the catalog.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "app.catalog", name = "backend", havingValue = "columnar")
+public class ColumnarCarRepository implements CarRepository {
+
+    static final int NO_HORSES = Integer.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Dictionary brands = new Dictionary();
+
+    private final Dictionary models = new Dictionary();
+
+    private final Object writeLock = new Object();
+
+    private volatile Columns columns = new Columns(new long[INITIAL_CAPACITY], new int[INITIAL_CAPACITY],
+            new int[INITIAL_CAPACITY], new int[INITIAL_CAPACITY], new double[INITIAL_CAPACITY], 0);
+
+    public ColumnarCarRepository() {
+        CatalogSeed.cars().forEach(this::save);
+    }
+
+    /**
+     * Assigns the next id, the row number plus one, to the given car and appends its fields to the columns.
+     */
+    @Override
+    public Car save(final Car car) {
+        synchronized (writeLock) {
+            Columns current = columns;
+            if (current.size() == current.ids().length) {
+                current = current.grow();
+            }
+            final int row = current.size();
+            car.setId(row + 1L);
+            current.ids()[row] = car.getId();
+            current.models()[row] = models.encode(car.getModel());
+            current.brands()[row] = brands.encode(car.getBrand());
+            current.horses()[row] = car.getHorses() == null ? NO_HORSES : car.getHorses();
+            current.prices()[row] = car.getPrice() == null ? Double.NaN : car.getPrice();
+            columns = current.withSize(row + 1);
+        }
+        return car;
+    }
+
+    @Override
+    public Optional<Car> findById(final Long id) {
+        final Columns current = columns;
+        if (id == null || id < 1 || id > current.size()) {
+            return Optional.empty();
+        }
+        return Optional.of(toCar(current, (int) (id - 1)));
+    }
+
+    @Override
+    public List<Car> findAll() {
+        final Columns current = columns;
+        final List<Car> result = new ArrayList<>(current.size());
+        for (int row = 0; row < current.size(); row++) {
+            result.add(toCar(current, row));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Override
+    public List<Car> findByBrand(final String brand) {
+        final int code = brands.codeOf(brand);
+        if (code < 0) {
+            return List.of();
+        }
+        final Columns current = columns;
+        final int[] brandCodes = current.brands();
+        final int size = current.size();
+        final List<Car> result = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            if (brandCodes[row] == code) {
+                result.add(toCar(current, row));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * One scan over the brand column for all requested brands, through a code to result list lookup table.
+     */
+    @Override
+    public Map<String, List<Car>> findByBrands(final Collection<String> requested) {
+        final Columns current = columns;
+        final Map<String, List<Car>> result = new LinkedHashMap<>();
+        final List<Car>[] byCode = newListArray(brands.size());
+        for (String brand : requested) {
+            final int code = brands.codeOf(brand);
+            if (code < 0 || code >= byCode.length) {
+                result.put(brand, List.of());
+            } else {
+                if (byCode[code] == null) {
+                    byCode[code] = new ArrayList<>();
+                }
+                result.put(brand, byCode[code]);
+            }
+        }
+        final int[] brandCodes = current.brands();
+        final int size = current.size();
+        for (int row = 0; row < size; row++) {
+            final int code = brandCodes[row];
+            if (code >= 0 && code < byCode.length && byCode[code] != null) {
+                byCode[code].add(toCar(current, row));
+            }
+        }
+        result.replaceAll((brand, cars) -> Collections.unmodifiableList(cars));
+        return result;
+    }
+
+    /**
+     * Scans the price column into primitive (price, row) pairs, sorts the pairs and only then builds the cars, so
+     * neither the scan nor the sort touches an object. Rows are in id order, so ties on price stay in id order.
+     */
+    @Override
+    public List<Car> findByPriceBetween(final double min, final double max) {
+        if (min > max) {
+            return List.of();
+        }
+        final Columns current = columns;
+        final double[] prices = current.prices();
+        final int size = current.size();
+        double[] matchedPrices = new double[16];
+        int[] matchedRows = new int[16];
+        int matches = 0;
+        for (int row = 0; row < size; row++) {
+            final double price = prices[row];
+            if (price >= min && price <= max) {
+                if (matches == matchedRows.length) {
+                    matchedPrices = Arrays.copyOf(matchedPrices, matches << 1);
+                    matchedRows = Arrays.copyOf(matchedRows, matches << 1);
+                }
+                matchedPrices[matches] = price;
+                matchedRows[matches++] = row;
+            }
+        }
+        sortByPriceThenRow(matchedPrices, matchedRows, 0, matches - 1);
+        final List<Car> result = new ArrayList<>(matches);
+        for (int i = 0; i < matches; i++) {
+            result.add(toCar(current, matchedRows[i]));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Ids are row numbers plus one, so the scan starts right at the cursor row.
+     */
+    @Override
+    public List<Car> findByBrandAfter(final String brand, final long afterId, final int limit) {
+        final int code = brands.codeOf(brand);
+        final Columns current = columns;
+        if (code < 0 || afterId >= current.size()) {
+            return List.of();
+        }
+        final int[] brandCodes = current.brands();
+        final int size = current.size();
+        final List<Car> page = new ArrayList<>(Math.min(limit, 1_024));
+        for (int row = (int) Math.max(0, afterId); row < size && page.size() < limit; row++) {
+            if (brandCodes[row] == code) {
+                page.add(toCar(current, row));
+            }
+        }
+        return Collections.unmodifiableList(page);
+    }
+
+    /**
+     * One scan keeping the limit smallest (price, row) pairs after the cursor in a primitive max-heap, so a page
+     * holds O(limit) memory however many cars the range matches.
+     */
+    @Override
+    public List<Car> findByPriceBetweenAfter(final double min, final double max, final double afterPrice,
+            final long afterId, final int limit) {
+        final Columns current = columns;
+        final int size = current.size();
+        final int capacity = Math.min(limit, size);
+        if (min > max || capacity <= 0) {
+            return List.of();
+        }
+        final double[] prices = current.prices();
+        final double[] heapPrices = new double[capacity];
+        final int[] heapRows = new int[capacity];
+        final long afterRow = afterId - 1;
+        int heapSize = 0;
+        for (int row = 0; row < size; row++) {
+            final double price = prices[row];
+            // positive form, so a missing price (NaN) fails it like in findByPriceBetween
+            if (!(price >= min && price <= max) || price < afterPrice || price == afterPrice && row <= afterRow) {
+                continue;
+            }
+            if (heapSize < capacity) {
+                heapPrices[heapSize] = price;
+                heapRows[heapSize] = row;
+                siftUp(heapPrices, heapRows, heapSize++);
+            } else if (price < heapPrices[0] || price == heapPrices[0] && row < heapRows[0]) {
+                heapPrices[0] = price;
+                heapRows[0] = row;
+                siftDown(heapPrices, heapRows, heapSize);
+            }
+        }
+        sortByPriceThenRow(heapPrices, heapRows, 0, heapSize - 1);
+        final List<Car> page = new ArrayList<>(heapSize);
+        for (int i = 0; i < heapSize; i++) {
+            page.add(toCar(current, heapRows[i]));
+        }
+        return Collections.unmodifiableList(page);
+    }
+
+    @Override
+    public void forEachByBrand(final String brand, final Consumer<? super Car> action) {
+        final int code = brands.codeOf(brand);
+        if (code < 0) {
+            return;
+        }
+        final Columns current = columns;
+        final int[] brandCodes = current.brands();
+        final int size = current.size();
+        for (int row = 0; row < size; row++) {
+            if (brandCodes[row] == code) {
+                action.accept(toCar(current, row));
+            }
+        }
+    }
+
+    /**
+     * Emits in row order, which is id order, since sorting by price would need every match first.
+     */
+    @Override
+    public void forEachByPriceBetween(final double min, final double max, final Consumer<? super Car> action) {
+        final Columns current = columns;
+        final double[] prices = current.prices();
+        final int size = current.size();
+        for (int row = 0; row < size; row++) {
+            final double price = prices[row];
+            if (price >= min && price <= max) {
+                action.accept(toCar(current, row));
+            }
+        }
+    }
+
+    @Override
+    public int count() {
+        return columns.size();
+    }
+
+    private Car toCar(final Columns current, final int row) {
+        final int horses = current.horses()[row];
+        final double price = current.prices()[row];
+        return new Car(current.ids()[row],
+                models.decode(current.models()[row]),
+                brands.decode(current.brands()[row]),
+                horses == NO_HORSES ? null : horses,
+                Double.isNaN(price) ? null : price);
+    }
+
+    /**
+     * Quicksort of the parallel arrays in [from, to] by price then row, recursing into the smaller half.
+     */
+    private static void sortByPriceThenRow(final double[] prices, final int[] rows, int from, int to) {
+        while (from < to) {
+            final int middle = (from + to) >>> 1;
+            final double pivotPrice = prices[middle];
+            final int pivotRow = rows[middle];
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (prices[i] < pivotPrice || prices[i] == pivotPrice && rows[i] < pivotRow) {
+                    i++;
+                }
+                while (prices[j] > pivotPrice || prices[j] == pivotPrice && rows[j] > pivotRow) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(prices, rows, i++, j--);
+                }
+            }
+            if (j - from < to - i) {
+                sortByPriceThenRow(prices, rows, from, j);
+                from = i;
+            } else {
+                sortByPriceThenRow(prices, rows, i, to);
+                to = j;
+            }
+        }
+    }
+
+    /**
+     * Restores the max-heap order of (price, row) after adding the pair at index.
+     */
+    private static void siftUp(final double[] prices, final int[] rows, int index) {
+        while (index > 0) {
+            final int parent = (index - 1) >>> 1;
+            if (!isAfter(prices, rows, index, parent)) {
+                return;
+            }
+            swap(prices, rows, index, parent);
+            index = parent;
+        }
+    }
+
+    /**
+     * Restores the max-heap order of (price, row) after replacing the root.
+     */
+    private static void siftDown(final double[] prices, final int[] rows, final int size) {
+        int index = 0;
+        while (true) {
+            final int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            final int right = left + 1;
+            final int largest = right < size && isAfter(prices, rows, right, left) ? right : left;
+            if (!isAfter(prices, rows, largest, index)) {
+                return;
+            }
+            swap(prices, rows, index, largest);
+            index = largest;
+        }
+    }
+
+    private static boolean isAfter(final double[] prices, final int[] rows, final int i, final int j) {
+        return prices[i] > prices[j] || prices[i] == prices[j] && rows[i] > rows[j];
+    }
+
+    private static void swap(final double[] prices, final int[] rows, final int i, final int j) {
+        final double price = prices[i];
+        prices[i] = prices[j];
+        prices[j] = price;
+        final int row = rows[i];
+        rows[i] = rows[j];
+        rows[j] = row;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Car>[] newListArray(final int length) {
+        return (List<Car>[]) new List<?>[length];
+    }
+
+    private record Columns(long[] ids, int[] models, int[] brands, int[] horses, double[] prices, int size) {
+
+        Columns grow() {
+            final int capacity = ids.length << 1;
+            return new Columns(Arrays.copyOf(ids, capacity), Arrays.copyOf(models, capacity),
+                    Arrays.copyOf(brands, capacity), Arrays.copyOf(horses, capacity),
+                    Arrays.copyOf(prices, capacity), size);
+        }
+
+        Columns withSize(final int newSize) {
+            return new Columns(ids, models, brands, horses, prices, newSize);
+        }
+    }
+
+    /**
+     * Append-only string dictionary, written under the repository lock. A code is published to readers together
+     * with the row using it, so decoding a code read from a published row never misses.
+     */
+    static final class Dictionary {
+
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+
+        private volatile String[] values = new String[16];
+
+        private int size;
+
+        int encode(final String value) {
+            if (value == null) {
+                return -1;
+            }
+            final Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size << 1);
+            }
+            current[size] = value;
+            values = current;
+            codes.put(value, size);
+            return size++;
+        }
+
+        int codeOf(final String value) {
+            final Integer code = value == null ? null : codes.get(value);
+            return code == null ? -1 : code;
+        }
+
+        String decode(final int code) {
+            return code < 0 ? null : values[code];
+        }
+
+        int size() {
+            return codes.size();
+        }
+    }
+}
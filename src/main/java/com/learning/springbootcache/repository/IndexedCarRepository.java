@@ -0,0 +1,179 @@
+package com.learning.springbootcache.repository;
+
+import com.learning.springbootcache.dto.Car;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Default in-memory car catalog, app.catalog.backend=indexed, shared by every request thread.
+ * <p>
+ * Writers are serialized on a short lock that allocates the id and appends the car to the catalog and to its
+ * secondary indexes. Readers never lock: every list handed out is an immutable prefix of an
+ * {@link AppendOnlyCarList}, ordered by id. Saves are amortized O(1) plus O(log n) for the price index.
+ * <p>
+ * Secondary indexes:
+ * brand -> cars, a hash index answering brand queries in O(k)
+ * price -> cars, a sorted index answering price range queries in O(log n + k), results ordered by price then id
+ */
+@Repository
+@ConditionalOnProperty(prefix = "app.catalog", name = "backend", havingValue = "indexed", matchIfMissing = true)
+public class IndexedCarRepository implements CarRepository {
+
+    private final AppendOnlyCarList cars = new AppendOnlyCarList();
+
+    private final Map<Long, Car> carsById = new ConcurrentHashMap<>();
+
+    private final Map<String, AppendOnlyCarList> carsByBrand = new ConcurrentHashMap<>();
+
+    private final NavigableMap<Double, AppendOnlyCarList> carsByPrice = new ConcurrentSkipListMap<>();
+
+    private final Object writeLock = new Object();
+
+    private long lastId;
+
+    public IndexedCarRepository() {
+        CatalogSeed.cars().forEach(this::save);
+    }
+
+    /**
+     * Assigns the next id to the given car and appends it to the catalog and its indexes.
+     */
+    @Override
+    public Car save(final Car car) {
+        synchronized (writeLock) {
+            car.setId(++lastId);
+            carsById.put(car.getId(), car);
+            if (car.getBrand() != null) {
+                carsByBrand.computeIfAbsent(car.getBrand(), brand -> new AppendOnlyCarList()).add(car);
+            }
+            if (car.getPrice() != null) {
+                carsByPrice.computeIfAbsent(car.getPrice(), price -> new AppendOnlyCarList()).add(car);
+            }
+            cars.add(car);
+        }
+        return car;
+    }
+
+    @Override
+    public Optional<Car> findById(final Long id) {
+        return Optional.ofNullable(carsById.get(id));
+    }
+
+    /**
+     * @return a read-only view of the catalog as of this call, later saves are not visible through it
+     */
+    @Override
+    public List<Car> findAll() {
+        return cars.view();
+    }
+
+    /**
+     * @return a read-only view of the cars of the given brand, ordered by id
+     */
+    @Override
+    public List<Car> findByBrand(final String brand) {
+        final AppendOnlyCarList brandCars = carsByBrand.get(brand);
+        return brandCars == null ? List.of() : brandCars.view();
+    }
+
+    /**
+     * @return the cars of each requested brand in request order, brands without cars map to an empty list
+     */
+    @Override
+    public Map<String, List<Car>> findByBrands(final Collection<String> brands) {
+        final Map<String, List<Car>> result = new LinkedHashMap<>();
+        brands.forEach(brand -> result.put(brand, findByBrand(brand)));
+        return result;
+    }
+
+    /**
+     * @return the cars priced within [min, max], ordered by price then id
+     */
+    @Override
+    public List<Car> findByPriceBetween(final double min, final double max) {
+        if (min > max) {
+            return List.of();
+        }
+        final List<Car> result = new ArrayList<>();
+        carsByPrice.subMap(min, true, max, true)
+                   .values()
+                   .forEach(priceCars -> priceCars.copyTo(result));
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Binary search of the brand list for the first id above afterId, then a sub list of it.
+     */
+    @Override
+    public List<Car> findByBrandAfter(final String brand, final long afterId, final int limit) {
+        final List<Car> brandCars = findByBrand(brand);
+        int low = 0;
+        int high = brandCars.size();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (brandCars.get(middle).getId() <= afterId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return brandCars.subList(low, (int) Math.min(brandCars.size(), (long) low + limit));
+    }
+
+    /**
+     * Walks the price index from afterPrice and stops after limit cars, so a page costs O(log n + limit) however
+     * wide the range is.
+     */
+    @Override
+    public List<Car> findByPriceBetweenAfter(final double min, final double max, final double afterPrice,
+            final long afterId, final int limit) {
+        final double from = Math.max(min, afterPrice);
+        if (from > max) {
+            return List.of();
+        }
+        final List<Car> page = new ArrayList<>(Math.min(limit, 1_024));
+        for (Map.Entry<Double, AppendOnlyCarList> bucket : carsByPrice.subMap(from, true, max, true).entrySet()) {
+            final boolean cursorBucket = bucket.getKey() == afterPrice;
+            for (Car car : bucket.getValue().view()) {
+                if (page.size() == limit) {
+                    return Collections.unmodifiableList(page);
+                }
+                if (!cursorBucket || car.getId() > afterId) {
+                    page.add(car);
+                }
+            }
+        }
+        return Collections.unmodifiableList(page);
+    }
+
+    @Override
+    public void forEachByBrand(final String brand, final Consumer<? super Car> action) {
+        findByBrand(brand).forEach(action);
+    }
+
+    @Override
+    public void forEachByPriceBetween(final double min, final double max, final Consumer<? super Car> action) {
+        if (min <= max) {
+            carsByPrice.subMap(min, true, max, true)
+                       .values()
+                       .forEach(priceCars -> priceCars.view().forEach(action));
+        }
+    }
+
+    @Override
+    public int count() {
+        return cars.size();
+    }
+}
@@ -0,0 +1,88 @@
+package com.learning.springbootcache.service;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.learning.springbootcache.cache.MeteredStatsCounter;
+import com.learning.springbootcache.cache.NativeCaches;
+import com.learning.springbootcache.config.CacheMetricsConfig;
+import com.learning.springbootcache.dto.CacheStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-time statistics of every Caffeine-backed cache of every CacheManager bean. The same numbers are
+ * published continuously through Micrometer (cache.gets, cache.evictions, cache.size, cache.load.latency, ...).
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheStatsService {
+
+    private final Map<String, CacheManager> cacheManagers;
+
+    private final MeterRegistry meterRegistry;
+
+    public List<CacheStatistics> getCacheStatistics() {
+        final List<CacheStatistics> statistics = new ArrayList<>();
+        cacheManagers.forEach((beanName, cacheManager) -> cacheManager.getCacheNames().forEach(cacheName -> {
+            final Cache cache = cacheManager.getCache(cacheName);
+            NativeCaches.caffeine(cache).ifPresent(nativeCache -> statistics.add(
+                    toStatistics(CacheMetricsConfig.cacheManagerTag(beanName), cacheName, nativeCache)));
+        }));
+        return statistics;
+    }
+
+    private CacheStatistics toStatistics(final String cacheManager, final String cacheName,
+            final com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache) {
+        final CacheStats stats = nativeCache.stats();
+        return CacheStatistics.builder()
+                              .cacheManager(cacheManager)
+                              .cache(cacheName)
+                              .estimatedSize(nativeCache.estimatedSize())
+                              .weightedSizeBytes(weightedSize(nativeCache))
+                              .hitCount(stats.hitCount())
+                              .missCount(stats.missCount())
+                              .hitRate(stats.hitRate())
+                              .evictionCount(stats.evictionCount())
+                              .evictionWeight(stats.evictionWeight())
+                              .loadSuccessCount(stats.loadSuccessCount())
+                              .loadFailureCount(stats.loadFailureCount())
+                              .averageLoadPenaltyMillis(stats.averageLoadPenalty() / 1_000_000d)
+                              .loadLatencyMillis(loadLatencyPercentiles(cacheManager, cacheName))
+                              .build();
+    }
+
+    private static Long weightedSize(final com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache) {
+        return nativeCache.policy()
+                          .eviction()
+                          .map(Policy.Eviction::weightedSize)
+                          .filter(OptionalLong::isPresent)
+                          .map(OptionalLong::getAsLong)
+                          .orElse(null);
+    }
+
+    private Map<String, Double> loadLatencyPercentiles(final String cacheManager, final String cacheName) {
+        final Map<String, Double> percentiles = new LinkedHashMap<>();
+        final Timer timer = meterRegistry.find(MeteredStatsCounter.LOAD_LATENCY)
+                                         .tags("cache", cacheName, "cache.manager", cacheManager)
+                                         .timer();
+        if (timer != null) {
+            for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+                percentiles.put("p" + Math.round(value.percentile() * 100), value.value(TimeUnit.MILLISECONDS));
+            }
+            percentiles.put("max", timer.max(TimeUnit.MILLISECONDS));
+        }
+        return percentiles;
+    }
+}
@@ -0,0 +1,104 @@
+package com.learning.springbootcache.service;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import com.learning.springbootcache.cache.NativeCaches;
+import com.learning.springbootcache.config.CacheSettings;
+import com.learning.springbootcache.dto.CachePolicy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Live tuning of running caches through Caffeine's policy(), without a restart.
+ * <p>
+ * Only bounds the cache was built with can be changed: the maximum of a size-bounded cache is an entry count, of a
+ * weight-bounded cache it is bytes, and refreshAfterWrite can only be changed on a refreshing cache. Changes last
+ * until the next restart, app.cache.caches holds the startup values.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheTuningService {
+
+    private final Map<String, CacheManager> cacheManagers;
+
+    public CachePolicy getPolicy(final String cacheName) {
+        return toPolicy(cacheName, findCache(cacheName).policy());
+    }
+
+    /**
+     * Applies every non-null, non-zero value of the given settings to the running cache. All of them are checked
+     * before any is applied, so a rejected request leaves the cache as it was.
+     */
+    public CachePolicy tune(final String cacheName, final CacheSettings changes) {
+        final Policy<Object, Object> policy = findCache(cacheName).policy();
+        final Optional<Policy.Eviction<Object, Object>> eviction = policy.eviction();
+        if (changes.getMaximumSize() > 0
+                && eviction.orElseThrow(() -> unsupported(cacheName, "maximumSize")).isWeighted()) {
+            throw unsupported(cacheName, "maximumSize, it is bounded by maximumWeight");
+        }
+        if (changes.isWeighted()
+                && !eviction.orElseThrow(() -> unsupported(cacheName, "maximumWeight")).isWeighted()) {
+            throw unsupported(cacheName, "maximumWeight, it is bounded by maximumSize");
+        }
+        final Optional<Policy.FixedExpiration<Object, Object>> expiration =
+                Optional.ofNullable(changes.getExpireAfterWrite())
+                        .map(ignored -> policy.expireAfterWrite()
+                                              .orElseThrow(() -> unsupported(cacheName, "expireAfterWrite")));
+        final Optional<Policy.FixedRefresh<Object, Object>> refresh =
+                Optional.ofNullable(changes.getRefreshAfterWrite())
+                        .map(ignored -> policy.refreshAfterWrite()
+                                              .orElseThrow(() -> unsupported(cacheName, "refreshAfterWrite")));
+
+        if (changes.getMaximumSize() > 0) {
+            eviction.get().setMaximum(changes.getMaximumSize());
+        }
+        if (changes.isWeighted()) {
+            eviction.get().setMaximum(changes.getMaximumWeight().toBytes());
+        }
+        expiration.ifPresent(expiry -> expiry.setExpiresAfter(changes.getExpireAfterWrite()));
+        refresh.ifPresent(refresher -> refresher.setRefreshesAfter(changes.getRefreshAfterWrite()));
+        final CachePolicy tuned = toPolicy(cacheName, policy);
+        log.info("Cache {} tuned: maximumSize={}, maximumWeightBytes={}, expireAfterWrite={}, refreshAfterWrite={}",
+                cacheName, tuned.getMaximumSize(), tuned.getMaximumWeightBytes(), tuned.getExpireAfterWrite(),
+                tuned.getRefreshAfterWrite());
+        return tuned;
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> findCache(final String cacheName) {
+        return cacheManagers.values()
+                            .stream()
+                            .map(cacheManager -> cacheManager.getCache(cacheName))
+                            .flatMap(cache -> NativeCaches.caffeine(cache).stream())
+                            .findFirst()
+                            .orElseThrow(() -> new NoSuchElementException("No cache named " + cacheName));
+    }
+
+    private static CachePolicy toPolicy(final String cacheName, final Policy<Object, Object> policy) {
+        final Optional<Policy.Eviction<Object, Object>> eviction = policy.eviction();
+        return CachePolicy.builder()
+                          .cache(cacheName)
+                          .maximumSize(eviction.filter(bound -> !bound.isWeighted())
+                                               .map(Policy.Eviction::getMaximum)
+                                               .orElse(null))
+                          .maximumWeightBytes(eviction.filter(Policy.Eviction::isWeighted)
+                                                      .map(Policy.Eviction::getMaximum)
+                                                      .orElse(null))
+                          .expireAfterWrite(policy.expireAfterWrite()
+                                                  .map(Policy.FixedExpiration::getExpiresAfter)
+                                                  .orElse(null))
+                          .refreshAfterWrite(policy.refreshAfterWrite()
+                                                   .map(Policy.FixedRefresh::getRefreshesAfter)
+                                                   .orElse(null))
+                          .build();
+    }
+
+    private static IllegalArgumentException unsupported(final String cacheName, final String setting) {
+        return new IllegalArgumentException("Cache " + cacheName + " cannot change " + setting);
+    }
+}
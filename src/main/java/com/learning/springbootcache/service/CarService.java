@@ -1,6 +1,13 @@
 package com.learning.springbootcache.service;
 
+import com.learning.springbootcache.cache.CarCacheInvalidator;
+import com.learning.springbootcache.cache.InvalidationBus;
+import com.learning.springbootcache.cache.NativeCaches;
+import com.learning.springbootcache.cache.TieredCache;
 import com.learning.springbootcache.dto.Car;
+import com.learning.springbootcache.dto.CarPage;
+import com.learning.springbootcache.repository.CarRepository;
+import com.learning.springbootcache.util.PageCursor;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -9,13 +16,19 @@ import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Using @Cacheable to Cache a Method’s Result in Spring Boot
@@ -88,7 +101,7 @@ public class CarService {
      * Cache Without Annotations in Spring Boot
      */
 
-    @Qualifier("priceFilterCacheManager")
+    @Qualifier("brandFilterCacheManager")
     private final CacheManager brandFilterCacheManager;
 
     @Qualifier("priceFilterCacheManager")
@@ -96,14 +109,14 @@ public class CarService {
 
 
 
-    private final List<Car> cars = new ArrayList<>(
-            List.of(
-                    new Car(1L, "Astra", "Opel", 100, 18000d),
-                    new Car(2L, "Insignia", "Opel", 120, 22000d),
-                    new Car(3L, "Golf", "VW", 90, 17000d),
-                    new Car(4L, "Golf", "VW", 120, 19000d),
-                    new Car(5L, "Gallardo", "Lamborghini", 400, 100_000d)
-            ));
+    private final CarRepository carRepository;
+
+    private final CarCacheInvalidator carCacheInvalidator;
+
+    /**
+     * Every evict and put below is also published to the peer nodes, the read paths are not
+     */
+    private final InvalidationBus invalidationBus;
 
     /**
      * 5.2 Using The Key Attribute
@@ -141,22 +154,64 @@ public class CarService {
 //    @Cacheable("priceFilterCache") // Creating a Custom KeyGenerator for Cache Key
 //    @Cacheable(value = "priceFilterCache", key = "#root.method") // #root.method, #root.target and #root.caches
 //    @Cacheable(value = "priceFilterCache", keyGenerator = "keyGenerator") // #root.method, #root.target and #root.caches
-    @Cacheable(value = "priceFilterCache", cacheManager = "priceFilterCacheManager") // Setting a Different Config for Each Cache by Using CacheManager Attribute
+//    @Cacheable(value = "priceFilterCache", cacheManager = "priceFilterCacheManager") // Setting a Different Config for Each Cache by Using CacheManager Attribute
+    @Cacheable(value = "priceFilterCache", cacheManager = "priceFilterCacheManager", keyGenerator = "priceRangeKeyGenerator", sync = true) // Range-aware, single-flight lookups, see PriceRangeCache
 //    @Cacheable(value = "priceFilterCache", cacheResolver = "priceFilterCacheResolver") // Using the CacheResolver Attribute
 //    @Cacheable(value = "priceFilterCache", cacheResolver = "priceFilterCacheResolver", condition = "#a0 > 18000") // Using the Condition Attribute
 //    @Cacheable(value = "priceFilterCache", cacheResolver = "priceFilterCacheResolver", condition = "#result.size() == 2") // Using the Unless Attribute
     public List<Car> getCarsWithPriceFilter(Double min, Double max) {
-        return cars.stream()
-                   .filter(car -> car.getPrice() >= min && car.getPrice() <= max)
-                   .toList();
+        return carRepository.findByPriceBetween(min, max);
     }
 
     //    @Cacheable("brandFilterCache") // Creating a Custom KeyGenerator for Cache Key
-    @Cacheable(value = "brandFilterCache", cacheManager = "brandFilterCacheManager")
+    @Cacheable(value = "brandFilterCache", cacheManager = "brandFilterCacheManager", sync = true) // single-flight load per brand
     public List<Car> getCarsWithBrandFilter(String brand) {
-        return cars.stream()
-                   .filter(car -> car.getBrand().equals(brand))
-                   .toList();
+        return carRepository.findByBrand(brand);
+    }
+
+    /**
+     * One page of getCarsWithPriceFilter, ordered by price then id. Pages are cached one by one in pricePageCache,
+     * keyed by range, cursor and limit, so a wide range never has to be materialized or cached as a whole.
+     */
+    @Cacheable(value = "pricePageCache", cacheManager = "priceFilterCacheManager", keyGenerator = "pricePageKeyGenerator", sync = true)
+    public CarPage getCarsWithPriceFilterPage(final Double min, final Double max, final String cursor,
+            final int limit) {
+        final PageCursor after = PageCursor.decode(cursor);
+        return toPage(carRepository.findByPriceBetweenAfter(min, max, after.price(), after.id(), limit + 1), limit,
+                last -> new PageCursor(last.getPrice(), last.getId()));
+    }
+
+    /**
+     * One page of getCarsWithBrandFilter, ordered by id, cached one by one in brandPageCache
+     */
+    @Cacheable(value = "brandPageCache", cacheManager = "brandFilterCacheManager", keyGenerator = "brandPageKeyGenerator", sync = true)
+    public CarPage getCarsWithBrandFilterPage(final String brand, final String cursor, final int limit) {
+        return toPage(carRepository.findByBrandAfter(brand, PageCursor.decode(cursor).id(), limit + 1), limit,
+                last -> new PageCursor(Double.NEGATIVE_INFINITY, last.getId()));
+    }
+
+    /**
+     * Hands the matches to the consumer as the catalog finds them, uncached, for results too big to hold
+     */
+    public void streamCarsWithPriceFilter(final double min, final double max, final Consumer<? super Car> consumer) {
+        carRepository.forEachByPriceBetween(min, max, consumer);
+    }
+
+    public void streamCarsWithBrandFilter(final String brand, final Consumer<? super Car> consumer) {
+        carRepository.forEachByBrand(brand, consumer);
+    }
+
+    /**
+     * Cars holds up to limit + 1 cars, the extra one only tells that there is a next page. Price pages never hold a
+     * car without a price, the catalog leaves those out of every price range.
+     *
+     * @param cursorOf the position after the given last car of the page
+     */
+    private static CarPage toPage(final List<Car> cars, final int limit, final Function<Car, PageCursor> cursorOf) {
+        if (cars.size() <= limit) {
+            return new CarPage(cars, null);
+        }
+        return new CarPage(cars.subList(0, limit), cursorOf.apply(cars.get(limit - 1)).encode());
     }
 
     /**
@@ -164,6 +219,7 @@ public class CarService {
      */
     @CacheEvict(value = "brandFilterCache", cacheManager = "brandFilterCacheManager", allEntries = true)
     public void evictAllBrandCacheEntries() {
+        invalidationBus.clear("brandFilterCache");
         log.info("evictAllBrandCacheEntries called.");
     }
 
@@ -176,6 +232,7 @@ public class CarService {
      */
     @CacheEvict(value = "brandFilterCache", cacheManager = "brandFilterCacheManager", key = "#brand")
     public void evictSpecificCaches(final String brand) {
+        invalidationBus.evict("brandFilterCache", brand);
         log.info("evictSpecificCaches called.");
     }
 
@@ -184,19 +241,71 @@ public class CarService {
      */
     @CachePut(value = "brandFilterCache", cacheManager = "brandFilterCacheManager", key = "#brand")
     public List<Car> putBrandFilterCache(String brand) {
-        return cars.stream()
-                   .filter(car -> car.getBrand().equals(brand))
-                   .toList();
+        invalidationBus.evict("brandFilterCache", brand);
+        return carRepository.findByBrand(brand);
+    }
+
+    /**
+     * Batch variant of getCarsWithBrandFilter
+     * Every brand goes through the cache's own per-key load, without the proxy round trip, so a missing brand is
+     * loaded once even under concurrent calls, and an eviction by create() waits for a running load instead of being
+     * overwritten by its stale list.
+     */
+    public Map<String, List<Car>> getCarsWithBrandFilters(final Collection<String> brands) {
+        final Cache cache = brandFilterCacheManager.getCache("brandFilterCache");
+        final Map<String, List<Car>> result = new LinkedHashMap<>();
+        for (String brand : new LinkedHashSet<>(brands)) {
+            result.put(brand, cache.get(brand, () -> carRepository.findByBrand(brand)));
+        }
+        return result;
+    }
+
+    /**
+     * Batch variant of evictSpecificCaches, one invalidateAll for all brands
+     */
+    public void evictBrandFilterCaches(final Collection<String> brands) {
+        brandFilterCache().ifPresentOrElse(
+                cache -> cache.invalidateAll(brands),
+                () -> brands.forEach(brand -> brandFilterCacheManager.getCache("brandFilterCache").evict(brand)));
+        brands.forEach(brand -> invalidationBus.evict("brandFilterCache", brand));
+        log.info("evictBrandFilterCaches called for {} brands.", brands.size());
     }
 
+    /**
+     * Batch variant of putBrandFilterCache, each brand is recomputed inside the cache's compute for that key, so a
+     * concurrent eviction is ordered before or after the write, never lost under it
+     */
+    public void putBrandFilterCaches(final Collection<String> brands) {
+        final Set<String> distinctBrands = new LinkedHashSet<>(brands);
+        brandFilterCache().ifPresentOrElse(
+                cache -> distinctBrands.forEach(brand ->
+                        cache.asMap().compute(brand, (key, cars) -> carRepository.findByBrand(brand))),
+                () -> {
+                    final Cache cache = brandFilterCacheManager.getCache("brandFilterCache");
+                    distinctBrands.forEach(brand -> {
+                        cache.evict(brand);
+                        cache.get(brand, () -> carRepository.findByBrand(brand));
+                    });
+                });
+        distinctBrands.forEach(brand -> invalidationBus.evict("brandFilterCache", brand));
+    }
+
+    /**
+     * The Caffeine cache for bulk operations, empty for a TieredCache, whose L2 only the per-key Cache methods keep
+     * consistent with its L1
+     */
+    private Optional<com.github.benmanes.caffeine.cache.Cache<Object, Object>> brandFilterCache() {
+        final Cache cache = brandFilterCacheManager.getCache("brandFilterCache");
+        return cache instanceof TieredCache ? Optional.empty() : NativeCaches.caffeine(cache);
+    }
+
+    /**
+     * Evicts only the new car's brand and the cached price ranges containing its price, see CarCacheInvalidator
+     */
     public Car create(Car car) {
-        final Long newId = cars.stream().mapToLong(Car::getId).max().orElse(0L) + 1L;
-        car.setId(newId);
-        cars.add(car);
-        return cars.stream()
-                   .filter(car_ -> car_.getId().equals(newId))
-                   .findAny()
-                   .orElseThrow();
+        final Car created = carRepository.save(car);
+        carCacheInvalidator.carCreated(created);
+        return created;
     }
 
 
@@ -214,7 +323,7 @@ public class CarService {
         Cache cache =  brandFilterCacheManager.getCache("brandFilterCache");
         var result =  Optional
                 .ofNullable(cache)
-                .map(cache_ -> cache_.get(new SimpleKey(brand)))
+                .map(cache_ -> cache_.get(SimpleKeyGenerator.generateKey(brand)))
                 .orElseGet(() -> insertInCacheAndReturn(brand, cache))
                 .get();
         return (List<Car>) result;
@@ -222,10 +331,8 @@ public class CarService {
 
     private Cache.ValueWrapper insertInCacheAndReturn(String brand, Cache cache) {
         return () -> {
-            List<Car> resultToBePut = cars.stream()
-                                          .filter(car -> car.getBrand().equals(brand))
-                                          .toList();
-            cache.put(new SimpleKey(brand), resultToBePut);
+            List<Car> resultToBePut = carRepository.findByBrand(brand);
+            cache.put(SimpleKeyGenerator.generateKey(brand), resultToBePut);
             return resultToBePut;
         };
     }
@@ -235,6 +342,7 @@ public class CarService {
      */
     public void evictAllBrandCacheEntriesWithoutCacheable() {
         Objects.requireNonNull(brandFilterCacheManager.getCache("brandFilterCache")).clear();
+        invalidationBus.clear("brandFilterCache");
     }
 
     /**
@@ -242,9 +350,8 @@ public class CarService {
      */
     public void putBrandFilterCacheWithoutCacheable(final String brand) {
         Cache cache =  brandFilterCacheManager.getCache("brandFilterCache");
-        List<Car> resultToBePut = cars.stream()
-                                      .filter(car -> car.getBrand().equals(brand))
-                                      .toList();
-        cache.put(new SimpleKey(brand), resultToBePut);
+        List<Car> resultToBePut = carRepository.findByBrand(brand);
+        cache.put(SimpleKeyGenerator.generateKey(brand), resultToBePut);
+        invalidationBus.evict("brandFilterCache", SimpleKeyGenerator.generateKey(brand));
     }
 }
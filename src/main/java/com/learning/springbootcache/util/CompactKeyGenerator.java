@@ -0,0 +1,164 @@
+package com.learning.springbootcache.util;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Allocation-light replacement for the {@code target + method.getName() + Arrays.toString(params)} key generator.
+ * <p>
+ * Keys are small typed objects holding the parameters as they are, with the hash computed once at construction.
+ * The method part of the key is a {@link MethodPrefix} built once per method and compared by identity, so a key
+ * costs one allocation and no string building. The target is left out: cached services are singletons, so the
+ * declaring method already identifies the cache entry.
+ * <p>
+ * The params array is kept without copying, Spring builds a fresh array for every cached invocation.
+ * <p>
+ * Registered as the keyGenerator bean, which no cache uses at the moment: the filter and page caches keep typed keys
+ * of their own, see CacheConfig.
+ */
+public class CompactKeyGenerator implements KeyGenerator {
+
+    private final Map<Method, MethodPrefix> prefixes = new ConcurrentHashMap<>();
+
+    @Override
+    public Object generate(final Object target, final Method method, final Object... params) {
+        MethodPrefix prefix = prefixes.get(method);
+        if (prefix == null) {
+            prefix = prefixes.computeIfAbsent(method, MethodPrefix::new);
+        }
+        return switch (params.length) {
+            case 0 -> prefix;
+            case 1 -> new Key1(prefix, params[0]);
+            case 2 -> new Key2(prefix, params[0], params[1]);
+            default -> new KeyN(prefix, params);
+        };
+    }
+
+    static final class MethodPrefix {
+
+        private final String name;
+
+        private final int hash;
+
+        private MethodPrefix(final Method method) {
+            this.name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+            this.hash = name.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static final class Key1 {
+
+        private final MethodPrefix prefix;
+
+        private final Object param;
+
+        private final int hash;
+
+        private Key1(final MethodPrefix prefix, final Object param) {
+            this.prefix = prefix;
+            this.param = param;
+            this.hash = 31 * prefix.hash + Objects.hashCode(param);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return this == other || other instanceof Key1 key
+                    && hash == key.hash
+                    && prefix == key.prefix
+                    && Objects.equals(param, key.param);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return prefix + "[" + param + "]";
+        }
+    }
+
+    static final class Key2 {
+
+        private final MethodPrefix prefix;
+
+        private final Object first;
+
+        private final Object second;
+
+        private final int hash;
+
+        private Key2(final MethodPrefix prefix, final Object first, final Object second) {
+            this.prefix = prefix;
+            this.first = first;
+            this.second = second;
+            this.hash = 31 * (31 * prefix.hash + Objects.hashCode(first)) + Objects.hashCode(second);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return this == other || other instanceof Key2 key
+                    && hash == key.hash
+                    && prefix == key.prefix
+                    && Objects.equals(first, key.first)
+                    && Objects.equals(second, key.second);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return prefix + "[" + first + ", " + second + "]";
+        }
+    }
+
+    static final class KeyN {
+
+        private final MethodPrefix prefix;
+
+        private final Object[] params;
+
+        private final int hash;
+
+        private KeyN(final MethodPrefix prefix, final Object[] params) {
+            this.prefix = prefix;
+            this.params = params;
+            this.hash = 31 * prefix.hash + Arrays.deepHashCode(params);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return this == other || other instanceof KeyN key
+                    && hash == key.hash
+                    && prefix == key.prefix
+                    && Arrays.deepEquals(params, key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return prefix + Arrays.deepToString(params);
+        }
+    }
+}
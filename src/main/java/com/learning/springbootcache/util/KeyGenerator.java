@@ -9,10 +9,12 @@ import java.lang.reflect.Method;
  *
  * In our specific case, meaning the getCarsWithPriceFilter method, the target will be the CarService object,
  * the method will be the signature of the method and the params will be the value passed to the method.
+ *
+ * Extends Spring's KeyGenerator so implementations can be registered as keyGenerator beans.
  */
 
 @FunctionalInterface
-public interface KeyGenerator {
+public interface KeyGenerator extends org.springframework.cache.interceptor.KeyGenerator {
 
     /**
      * Generate a key for the given method and its parameters.
@@ -21,5 +23,6 @@ public interface KeyGenerator {
      * @param params the method parameters (with any var-args expanded)
      * @return a generated key
      */
+    @Override
     Object generate(Object target, Method method, Object... params);
 }
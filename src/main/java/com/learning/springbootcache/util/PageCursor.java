@@ -0,0 +1,36 @@
+package com.learning.springbootcache.util;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Position after the last car of a page, in price then id order, handed to clients as an opaque URL-safe token.
+ * Brand pages are ordered by id alone and leave price at negative infinity.
+ */
+public record PageCursor(double price, long id) {
+
+    public static final PageCursor FIRST = new PageCursor(Double.NEGATIVE_INFINITY, 0);
+
+    private static final int BYTES = Double.BYTES + Long.BYTES;
+
+    public String encode() {
+        final ByteBuffer bytes = ByteBuffer.allocate(BYTES).putDouble(price).putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.array());
+    }
+
+    /**
+     * @return the decoded cursor, {@link #FIRST} for a null or empty token
+     * @throws IllegalArgumentException when the token was not produced by {@link #encode()}
+     */
+    public static PageCursor decode(final String token) {
+        if (token == null || token.isEmpty()) {
+            return FIRST;
+        }
+        final byte[] bytes = Base64.getUrlDecoder().decode(token);
+        if (bytes.length != BYTES) {
+            throw new IllegalArgumentException("Invalid page cursor " + token);
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new PageCursor(buffer.getDouble(), buffer.getLong());
+    }
+}
@@ -3,10 +3,10 @@ package com.learning.springbootcache;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-//@SpringBootTest
+@SpringBootTest
 class SpringbootCacheApplicationTests {
 
-//    @Test
+    @Test
     void contextLoads() {
     }
 
@@ -0,0 +1,132 @@
+package com.learning.springbootcache.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learning.springbootcache.config.CacheProperties;
+import com.learning.springbootcache.dto.Car;
+import com.learning.springbootcache.repository.CarRepository;
+import com.learning.springbootcache.repository.IndexedCarRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheSnapshotterTest {
+
+    private final CarRepository repository = new IndexedCarRepository();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void snapshotRoundTripsBrandAndPriceEntries() throws Exception {
+        final Map<String, CacheManager> before = cacheManagers(100);
+        brandCache(before).put("Opel", repository.findByBrand("Opel"));
+        brandCache(before).put("VW", repository.findByBrand("VW"));
+        priceCache(before).put(new PriceRange(17_000d, 19_000d), repository.findByPriceBetween(17_000d, 19_000d));
+        snapshotter(before).write();
+
+        final Map<String, CacheManager> after = cacheManagers(100);
+        assertThat(snapshotter(after).load()).isEqualTo(3);
+
+        assertThat(brandCache(after).get("Opel", List.class)).usingRecursiveComparison()
+                                                              .isEqualTo(repository.findByBrand("Opel"));
+        assertThat(priceCache(after).get(new PriceRange(18_000d, 19_000d), List.class)).extracting("model")
+                                                                                     .containsExactly("Astra", "Golf");
+    }
+
+    @Test
+    void loadStopsAtCacheBoundKeepingHottestEntries() throws Exception {
+        final Map<String, CacheManager> before = cacheManagers(4);
+        final Cache brandCache = brandCache(before);
+        List.of("Opel", "VW", "Lamborghini").forEach(brand -> brandCache.put(brand, repository.findByBrand(brand)));
+        for (int i = 0; i < 5; i++) {
+            brandCache.get("Lamborghini");
+            brandCache.get("VW");
+        }
+        snapshotter(before).write();
+
+        final Map<String, CacheManager> after = cacheManagers(2);
+        assertThat(snapshotter(after).load()).isEqualTo(2);
+        assertThat(((CaffeineCache) brandCache(after)).getNativeCache().asMap()).containsOnlyKeys("Lamborghini", "VW");
+    }
+
+    @Test
+    void staleOrMissingSnapshotLeavesCachesCold() throws Exception {
+        final Map<String, CacheManager> before = cacheManagers(100);
+        brandCache(before).put("Opel", repository.findByBrand("Opel"));
+        final CacheSnapshotter snapshotter = snapshotter(before);
+        assertThat(snapshotter.load()).isZero();
+
+        snapshotter.write();
+        final CacheProperties stale = properties();
+        stale.getSnapshot().setMaxAge(Duration.ZERO);
+        Thread.sleep(5);
+        assertThat(new CacheSnapshotter(cacheManagers(100), stale).load()).isZero();
+    }
+
+    @Test
+    void corruptOrTruncatedSnapshotRestoresNothing() throws Exception {
+        final Map<String, CacheManager> before = cacheManagers(100);
+        brandCache(before).put("Opel", repository.findByBrand("Opel"));
+        priceCache(before).put(new PriceRange(17_000d, 19_000d), repository.findByPriceBetween(17_000d, 19_000d));
+        snapshotter(before).write();
+        final Path path = dir.resolve("snapshot.bin");
+        final byte[] valid = Files.readAllBytes(path);
+
+        // header is magic, version, writtenAt and cache count, the first section's name length follows
+        final byte[] negativeLength = valid.clone();
+        ByteBuffer.wrap(negativeLength).putInt(20, -7);
+        final byte[] hugeLength = valid.clone();
+        ByteBuffer.wrap(hugeLength).putInt(20, Integer.MAX_VALUE);
+        for (byte[] corrupt : List.of(negativeLength, hugeLength, Arrays.copyOf(valid, valid.length - 3))) {
+            Files.write(path, corrupt);
+            final Map<String, CacheManager> after = cacheManagers(100);
+
+            assertThat(snapshotter(after).load()).isZero();
+            assertThat(((CaffeineCache) brandCache(after)).getNativeCache().asMap()).isEmpty();
+            assertThat(((PriceRangeCache) priceCache(after)).getNativeCache().asMap()).isEmpty();
+        }
+    }
+
+    private CacheSnapshotter snapshotter(final Map<String, CacheManager> cacheManagers) {
+        return new CacheSnapshotter(cacheManagers, properties());
+    }
+
+    private CacheProperties properties() {
+        final CacheProperties properties = new CacheProperties();
+        properties.getSnapshot().setPath(dir.resolve("snapshot.bin"));
+        return properties;
+    }
+
+    private static Map<String, CacheManager> cacheManagers(final int maximumSize) {
+        final SimpleCacheManager brand = new SimpleCacheManager();
+        brand.setCaches(List.of(new CaffeineCache("brandFilterCache",
+                Caffeine.newBuilder().executor(Runnable::run).maximumSize(maximumSize).build())));
+        brand.afterPropertiesSet();
+        final SimpleCacheManager price = new SimpleCacheManager();
+        price.setCaches(List.of(new PriceRangeCache("priceFilterCache",
+                Caffeine.newBuilder().executor(Runnable::run).maximumSize(maximumSize))));
+        price.afterPropertiesSet();
+        return Map.of("brandFilterCacheManager", brand, "priceFilterCacheManager", price);
+    }
+
+    private static Cache brandCache(final Map<String, CacheManager> cacheManagers) {
+        return cacheManagers.get("brandFilterCacheManager").getCache("brandFilterCache");
+    }
+
+    private static Cache priceCache(final Map<String, CacheManager> cacheManagers) {
+        return cacheManagers.get("priceFilterCacheManager").getCache("priceFilterCache");
+    }
+}
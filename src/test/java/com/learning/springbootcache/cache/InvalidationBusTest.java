@@ -0,0 +1,185 @@
+package com.learning.springbootcache.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learning.springbootcache.config.CacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InvalidationBusTest {
+
+    private final List<InvalidationBus> buses = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        buses.forEach(InvalidationBus::destroy);
+    }
+
+    @Test
+    void peersEvictPublishedKeysAndSenderKeepsItsOwn() {
+        final LoopbackTransport.Network network = new LoopbackTransport.Network();
+        final Map<String, CacheManager> node1 = cacheManagers();
+        final Map<String, CacheManager> node2 = cacheManagers();
+        final InvalidationBus bus1 = bus(node1, new LoopbackTransport(network));
+        bus(node2, new LoopbackTransport(network));
+        List.of(node1, node2).forEach(node -> {
+            priceCache(node).put(new PriceRange(17_000d, 22_000d), List.of());
+            brandCache(node).put("Opel", List.of());
+            brandCache(node).put("VW", List.of());
+            brandCache(node).put(new BrandPageKey("VW", null, 1), List.of());
+        });
+
+        bus1.evict("brandFilterCache", "Opel");
+        bus1.evictContaining("priceFilterCache", 18_000d);
+        bus1.evictBrand("brandFilterCache", "VW");
+        bus1.flush();
+
+        assertThat(brandCache(node2).get("Opel")).isNull();
+        assertThat(brandCache(node2).get("VW")).isNotNull();
+        assertThat(brandCache(node2).get(new BrandPageKey("VW", null, 1))).isNull();
+        assertThat(priceCache(node2).get(new PriceRange(17_000d, 22_000d))).isNull();
+        assertThat(brandCache(node1).get("Opel")).isNotNull();
+    }
+
+    @Test
+    void clearReplacesPendingEvictsOfTheSameCache() {
+        final List<byte[]> sent = new ArrayList<>();
+        final LoopbackTransport.Network network = new LoopbackTransport.Network();
+        final InvalidationBus bus = bus(cacheManagers(), new LoopbackTransport(network) {
+            @Override
+            public void send(final byte[] batch) {
+                sent.add(batch);
+            }
+        });
+
+        bus.evict("brandFilterCache", "Opel");
+        bus.evict("brandFilterCache", "Opel");
+        bus.evict("priceFilterCache", new PriceRange(1d, 2d));
+        bus.clear("brandFilterCache");
+        bus.evict("brandFilterCache", "VW");
+        bus.flush();
+
+        assertThat(sent).hasSize(1);
+        assertThat(ByteBuffer.wrap(sent.get(0)).getInt(12)).isEqualTo(2);
+    }
+
+    @Test
+    void publishAfterDestroyIsDropped() {
+        final List<byte[]> sent = new ArrayList<>();
+        final InvalidationBus bus = bus(cacheManagers(), new LoopbackTransport(new LoopbackTransport.Network()) {
+            @Override
+            public void send(final byte[] batch) {
+                sent.add(batch);
+            }
+        });
+        bus.evict("brandFilterCache", "Opel");
+        bus.destroy();
+
+        assertThatCode(() -> {
+            for (int i = 0; i < 1_000; i++) {
+                bus.evict("brandFilterCache", "brand" + i);
+            }
+        }).doesNotThrowAnyException();
+        bus.flush();
+        assertThat(sent).hasSize(1);
+    }
+
+    @Test
+    void invalidationLargerThanAMessageIsSentAsAClear() {
+        final List<byte[]> sent = new ArrayList<>();
+        final LoopbackTransport.Network network = new LoopbackTransport.Network();
+        final Map<String, CacheManager> node2 = cacheManagers();
+        final InvalidationBus bus1 = bus(cacheManagers(), new LoopbackTransport(network) {
+            @Override
+            public void send(final byte[] batch) {
+                sent.add(batch);
+                super.send(batch);
+            }
+
+            @Override
+            public int maxMessageBytes() {
+                return 200;
+            }
+        });
+        bus(node2, new LoopbackTransport(network));
+        brandCache(node2).put("Opel", List.of());
+
+        bus1.evict("brandFilterCache", "x".repeat(500));
+        bus1.flush();
+
+        assertThat(sent).singleElement().satisfies(batch -> assertThat(batch.length).isLessThanOrEqualTo(200));
+        assertThat(brandCache(node2).get("Opel")).isNull();
+    }
+
+    @Test
+    void udpTransportDeliversBatchesToPeers() throws InterruptedException {
+        final Map<String, CacheManager> node1 = cacheManagers();
+        final Map<String, CacheManager> node2 = cacheManagers();
+        final InetAddress loopback = InetAddress.getLoopbackAddress();
+        final UdpTransport receiver = new UdpTransport(loopback, 0, List.of());
+        final UdpTransport sender = new UdpTransport(loopback, 0,
+                List.of(new InetSocketAddress(loopback, receiver.getLocalPort())));
+        final InvalidationBus bus1 = bus(node1, sender);
+        bus(node2, receiver);
+        brandCache(node2).put("Opel", List.of());
+
+        bus1.evict("brandFilterCache", "Opel");
+        bus1.flush();
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (brandCache(node2).get("Opel") != null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(brandCache(node2).get("Opel")).isNull();
+        assertThatThrownBy(() -> sender.send(new byte[UdpTransport.MAX_DATAGRAM_BYTES + 1]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private InvalidationBus bus(final Map<String, CacheManager> cacheManagers, final InvalidationTransport transport) {
+        final CacheProperties properties = new CacheProperties();
+        properties.getBus().setEnabled(true);
+        properties.getBus().setFlushInterval(Duration.ofHours(1));
+        final StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("transport", transport);
+        final InvalidationBus bus = new InvalidationBus(cacheManagers, properties,
+                beans.getBeanProvider(InvalidationTransport.class));
+        bus.afterPropertiesSet();
+        buses.add(bus);
+        return bus;
+    }
+
+    private static Map<String, CacheManager> cacheManagers() {
+        final SimpleCacheManager brand = new SimpleCacheManager();
+        brand.setCaches(List.of(new CaffeineCache("brandFilterCache", Caffeine.newBuilder().build())));
+        brand.afterPropertiesSet();
+        final SimpleCacheManager price = new SimpleCacheManager();
+        price.setCaches(List.of(new PriceRangeCache("priceFilterCache", Caffeine.newBuilder())));
+        price.afterPropertiesSet();
+        return Map.of("brandFilterCacheManager", brand, "priceFilterCacheManager", price);
+    }
+
+    private static Cache brandCache(final Map<String, CacheManager> cacheManagers) {
+        return cacheManagers.get("brandFilterCacheManager").getCache("brandFilterCache");
+    }
+
+    private static Cache priceCache(final Map<String, CacheManager> cacheManagers) {
+        return cacheManagers.get("priceFilterCacheManager").getCache("priceFilterCache");
+    }
+}
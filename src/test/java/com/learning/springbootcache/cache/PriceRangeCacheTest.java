@@ -0,0 +1,220 @@
+package com.learning.springbootcache.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.learning.springbootcache.dto.Car;
+import com.learning.springbootcache.repository.CarRepository;
+import com.learning.springbootcache.repository.IndexedCarRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceRangeCacheTest {
+
+    private final CarRepository repository = new IndexedCarRepository();
+
+    private final PriceRangeCache cache = new PriceRangeCache("priceFilterCache", Caffeine.newBuilder());
+
+    @Test
+    void subRangeIsServedFromCachedSuperset() {
+        put(17_000d, 22_000d);
+
+        assertThat(cached(18_000d, 19_000d)).extracting(Car::getPrice).containsExactly(18_000d, 19_000d);
+        assertThat(cached(18_500d, 18_900d)).isEmpty();
+        assertThat(cached(16_000d, 19_000d)).isNull();
+    }
+
+    @Test
+    void overlappingAndAdjacentRangesAreMerged() {
+        put(17_000d, 18_000d);
+        put(18_000d, 19_000d);
+        put(18_500d, 22_000d);
+
+        assertThat(cache.getNativeCache().asMap()).containsOnlyKeys(new PriceRange(17_000d, 22_000d));
+        assertThat(cached(17_000d, 22_000d)).isEqualTo(repository.findByPriceBetween(17_000d, 22_000d));
+    }
+
+    @Test
+    void disjointRangesStaySeparate() {
+        put(17_000d, 18_000d);
+        put(50_000d, 150_000d);
+
+        assertThat(cache.getNativeCache().asMap()).hasSize(2);
+        assertThat(cached(90_000d, 110_000d)).extracting(Car::getModel).containsExactly("Gallardo");
+        assertThat(cached(17_500d, 60_000d)).isNull();
+    }
+
+    @Test
+    void evictRemovesRangeFromIndex() {
+        put(17_000d, 22_000d);
+        cache.evict(new PriceRange(17_000d, 22_000d));
+
+        assertThat(cached(18_000d, 19_000d)).isNull();
+    }
+
+    @Test
+    void evictContainingOnlyDropsTheRangeWithThatPrice() {
+        put(17_000d, 18_000d);
+        put(90_000d, 110_000d);
+
+        cache.evictContaining(17_500d);
+
+        assertThat(cache.getNativeCache().asMap()).containsOnlyKeys(new PriceRange(90_000d, 110_000d));
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<List<Car>> loader = () -> {
+            loads.incrementAndGet();
+            release.await();
+            return repository.findByPriceBetween(17_000d, 22_000d);
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<List<Car>>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> cache.get(new PriceRange(17_000d, 22_000d), loader)));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<List<Car>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).hasSize(4);
+        }
+        executor.shutdown();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void evictContainingDuringALoadDropsTheLoadedRange() throws Exception {
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final Future<List<Car>> load = executor.submit(() -> cache.get(new PriceRange(17_000d, 22_000d), () -> {
+            final List<Car> cars = repository.findByPriceBetween(17_000d, 22_000d);
+            loadStarted.countDown();
+            release.await();
+            return cars;
+        }));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        repository.save(new Car(null, "Corsa", "Opel", 75, 20_000d));
+        final Future<?> eviction = executor.submit(() -> cache.evictContaining(20_000d));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(load.get(5, TimeUnit.SECONDS)).hasSize(4);
+        eviction.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertThat(cached(17_000d, 22_000d)).isNull();
+        assertThat(cache.getNativeCache().asMap()).isEmpty();
+    }
+
+    @Test
+    void agingRangeIsServedWhileItReloads() throws InterruptedException {
+        final FakeTicker ticker = new FakeTicker();
+        final AtomicInteger reloads = new AtomicInteger();
+        final CountDownLatch staleRead = new CountDownLatch(1);
+        final CountDownLatch reloaded = new CountDownLatch(1);
+        final PriceRangeCache refreshing = new PriceRangeCache("priceFilterCache",
+                Caffeine.newBuilder()
+                        .ticker(ticker)
+                        .refreshAfterWrite(Duration.ofSeconds(1))
+                        .expireAfterWrite(Duration.ofSeconds(2)),
+                range -> {
+                    reloads.incrementAndGet();
+                    staleRead.await();
+                    final List<Car> cars = repository.findByPriceBetween(range.min(), range.max());
+                    reloaded.countDown();
+                    return cars;
+                });
+        final PriceRange range = new PriceRange(17_000d, 22_000d);
+        refreshing.put(range, repository.findByPriceBetween(17_000d, 22_000d));
+        repository.save(new Car(null, "Corsa", "Opel", 75, 20_000d));
+
+        ticker.advance(Duration.ofMillis(1_500));
+
+        assertThat(refreshing.get(range, List.class)).hasSize(4);
+        staleRead.countDown();
+        assertThat(reloaded.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        assertThat(refreshing.get(range, List.class)).hasSize(5);
+        assertThat(reloads).hasValue(1);
+    }
+
+    @Test
+    void mergedRangeExpiresWithItsOldestData() {
+        final FakeTicker ticker = new FakeTicker();
+        final PriceRangeCache expiring = new PriceRangeCache("priceFilterCache",
+                Caffeine.newBuilder().ticker(ticker).expireAfterWrite(Duration.ofSeconds(10)));
+        expiring.put(new PriceRange(17_000d, 18_000d), repository.findByPriceBetween(17_000d, 18_000d));
+        ticker.advance(Duration.ofSeconds(6));
+        expiring.put(new PriceRange(18_000d, 19_000d), repository.findByPriceBetween(18_000d, 19_000d));
+        ticker.advance(Duration.ofSeconds(3));
+
+        assertThat(expiring.get(new PriceRange(17_000d, 19_000d))).isNotNull();
+
+        ticker.advance(Duration.ofSeconds(2));
+        assertThat(expiring.get(new PriceRange(18_500d, 19_000d))).isNull();
+        assertThat(expiring.getNativeCache().asMap()).isEmpty();
+
+        expiring.put(new PriceRange(17_000d, 19_000d), repository.findByPriceBetween(17_000d, 19_000d));
+        ticker.advance(Duration.ofSeconds(9));
+        assertThat(expiring.get(new PriceRange(17_000d, 19_000d))).isNotNull();
+    }
+
+    @Test
+    void everyLookupRecordsOneHitOrMiss() {
+        final PriceRangeCache counted = new PriceRangeCache("priceFilterCache", Caffeine.newBuilder().recordStats());
+        final Callable<List<Car>> loader = () -> repository.findByPriceBetween(17_000d, 22_000d);
+
+        counted.get(new PriceRange(17_000d, 22_000d), loader);
+        assertThat(counted.getNativeCache().stats()).extracting("hitCount", "missCount").containsExactly(0L, 1L);
+
+        counted.get(new PriceRange(17_000d, 22_000d), loader);
+        assertThat(counted.getNativeCache().stats()).extracting("hitCount", "missCount").containsExactly(1L, 1L);
+
+        counted.get(new PriceRange(18_000d, 19_000d), loader);
+        assertThat(counted.getNativeCache().stats()).extracting("hitCount", "missCount").containsExactly(2L, 1L);
+
+        assertThat(counted.get(new PriceRange(18_000d, 19_000d))).isNotNull();
+        assertThat(counted.get(new PriceRange(17_000d, 22_000d))).isNotNull();
+        assertThat(counted.get(new PriceRange(50_000d, 60_000d))).isNull();
+        assertThat(counted.getNativeCache().stats()).extracting("hitCount", "missCount").containsExactly(4L, 2L);
+    }
+
+    private void put(final double min, final double max) {
+        cache.put(new PriceRange(min, max), repository.findByPriceBetween(min, max));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Car> cached(final double min, final double max) {
+        return cache.get(new PriceRange(min, max), List.class);
+    }
+
+    private static final class FakeTicker implements Ticker {
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(final Duration duration) {
+            nanos.addAndGet(duration.toNanos());
+        }
+    }
+}
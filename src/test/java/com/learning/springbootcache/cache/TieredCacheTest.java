@@ -0,0 +1,126 @@
+package com.learning.springbootcache.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.learning.springbootcache.dto.Car;
+import com.learning.springbootcache.repository.CarRepository;
+import com.learning.springbootcache.repository.IndexedCarRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredCacheTest {
+
+    private final CarRepository repository = new IndexedCarRepository();
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final Ticker ticker = nanos::get;
+
+    private final OffHeapStore l2 = new OffHeapStore(4096, Duration.ofSeconds(10), ticker);
+
+    private final TieredCache cache = new TieredCache("brandFilterCache",
+            Caffeine.newBuilder().executor(Runnable::run).maximumSize(1), null, l2);
+
+    @Test
+    void sizeEvictionDemotesToL2AndMissPromotesBack() {
+        cache.put("Opel", repository.findByBrand("Opel"));
+        cache.put("VW", repository.findByBrand("VW"));
+        cache.getNativeCache().cleanUp();
+
+        assertThat(cache.getNativeCache().estimatedSize()).isEqualTo(1);
+        assertThat(l2.size()).isEqualTo(1);
+
+        final String demoted = cache.getNativeCache().asMap().containsKey("VW") ? "Opel" : "VW";
+        final List<?> promoted = cache.get(demoted, List.class);
+        assertThat(promoted).usingRecursiveComparison().isEqualTo(repository.findByBrand(demoted));
+        assertThat(cache.getNativeCache().asMap()).containsKey(demoted);
+    }
+
+    @Test
+    void evictRemovesKeyFromBothTiers() {
+        cache.put("Opel", repository.findByBrand("Opel"));
+        cache.put("VW", repository.findByBrand("VW"));
+        cache.getNativeCache().cleanUp();
+
+        cache.evict("Opel");
+        cache.evict("VW");
+
+        assertThat(cache.get("Opel")).isNull();
+        assertThat(cache.get("VW")).isNull();
+        assertThat(l2.size()).isZero();
+    }
+
+    @Test
+    void putOverADemotedKeyAndClearLeaveNothingToPromote() {
+        cache.put("Opel", repository.findByBrand("Opel"));
+        cache.put("VW", repository.findByBrand("VW"));
+        cache.getNativeCache().cleanUp();
+        final String demoted = cache.getNativeCache().asMap().containsKey("VW") ? "Opel" : "VW";
+
+        cache.put(demoted, List.of());
+        assertThat(l2.take(demoted)).isNull();
+
+        cache.clear();
+        assertThat(cache.getNativeCache().estimatedSize()).isZero();
+        assertThat(l2.size()).isZero();
+        assertThat(cache.get("Opel")).isNull();
+        assertThat(cache.get("VW")).isNull();
+    }
+
+    @Test
+    void everyLookupRecordsOneHitOrMissAcrossBothTiers() {
+        final TieredCache counted = new TieredCache("brandFilterCache",
+                Caffeine.newBuilder().executor(Runnable::run).maximumSize(1).recordStats(), null, l2);
+
+        counted.get("Opel", () -> repository.findByBrand("Opel"));
+        counted.get("Opel", () -> repository.findByBrand("Opel"));
+        assertThat(counted.getNativeCache().stats()).extracting("hitCount", "missCount").containsExactly(1L, 1L);
+
+        counted.put("VW", repository.findByBrand("VW"));
+        counted.getNativeCache().cleanUp();
+        final String demoted = counted.getNativeCache().asMap().containsKey("VW") ? "Opel" : "VW";
+        assertThat(counted.get(demoted)).isNotNull();
+        assertThat(counted.get("Fiat")).isNull();
+        assertThat(counted.getNativeCache().stats()).extracting("hitCount", "missCount").containsExactly(2L, 2L);
+    }
+
+    @Test
+    void demotedEntryExpiresFromItsOriginalWrite() {
+        final TieredCache expiring = new TieredCache("brandFilterCache",
+                Caffeine.newBuilder().executor(Runnable::run).ticker(ticker).expireAfterWrite(Duration.ofSeconds(10))
+                        .maximumSize(1), null, l2);
+        expiring.put("Opel", repository.findByBrand("Opel"));
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        expiring.put("VW", repository.findByBrand("VW"));
+        expiring.getNativeCache().cleanUp();
+        assertThat(expiring.getNativeCache().asMap()).containsOnlyKeys("VW");
+        assertThat(l2.size()).isEqualTo(1);
+
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(expiring.get("Opel")).isNull();
+    }
+
+    @Test
+    void offHeapStoreOverwritesOldestRecordsAndExpires() {
+        final OffHeapStore store = new OffHeapStore(600, Duration.ofSeconds(10), ticker);
+        final List<Car> cars = repository.findAll();
+        store.put("a", cars);
+        store.put("b", cars);
+        store.put("c", cars);
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.take("a")).isNull();
+        assertThat(store.take("b")).extracting(Car::getModel)
+                                   .containsExactly("Astra", "Insignia", "Golf", "Golf", "Gallardo");
+        assertThat(store.size()).isEqualTo(1);
+
+        nanos.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(store.take("c")).isNull();
+        assertThat(store.usedBytes()).isZero();
+    }
+}
@@ -0,0 +1,38 @@
+package com.learning.springbootcache.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachePropertiesTest {
+
+    @Test
+    void builtInCachesAreUsedWhenNoneAreConfigured() {
+        final CacheProperties properties = bind(Map.of("app.cache.bus.enabled", "false"));
+
+        assertThat(properties.getCaches().keySet()).containsExactly("brandFilterCache", "priceFilterCache",
+                "brandPageCache", "pricePageCache");
+    }
+
+    @Test
+    void configuredCachesReplaceTheBuiltInOnes() {
+        final CacheProperties properties = bind(Map.of(
+                "app.cache.caches.brandFilterCache.cache-manager", "brandFilterCacheManager",
+                "app.cache.caches.brandFilterCache.maximum-size", "10"));
+
+        assertThat(properties.getCaches()).containsOnlyKeys("brandFilterCache");
+        assertThat(properties.getCaches().get("brandFilterCache").getMaximumSize()).isEqualTo(10);
+    }
+
+    private static CacheProperties bind(final Map<String, String> source) {
+        final CacheProperties properties = new CacheProperties();
+        new Binder(new MapConfigurationPropertySource(source)).bind("app.cache", Bindable.ofInstance(properties));
+        properties.afterPropertiesSet();
+        return properties;
+    }
+}
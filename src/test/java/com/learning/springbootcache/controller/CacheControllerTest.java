@@ -0,0 +1,82 @@
+package com.learning.springbootcache.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItems;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext
+class CacheControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void cacheStatsCountHitsAndMissesPerCache() throws Exception {
+        mockMvc.perform(get("/cars").param("brand", "Lamborghini")).andExpect(status().isOk());
+        mockMvc.perform(get("/cars").param("brand", "Lamborghini")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/cars/cache-stats"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[*].cache", hasItems("brandFilterCache", "priceFilterCache")))
+               .andExpect(jsonPath("$[?(@.cache == 'brandFilterCache')].cacheManager",
+                       contains("brandFilter")))
+               .andExpect(jsonPath("$[?(@.cache == 'brandFilterCache')].hitCount", contains(1)))
+               .andExpect(jsonPath("$[?(@.cache == 'brandFilterCache')].missCount", contains(1)));
+    }
+
+    @Test
+    void cacheAdminShowsAndTunesTheRunningPolicy() throws Exception {
+        mockMvc.perform(get("/cars/cache-admin/brandPageCache"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.cache").value("brandPageCache"))
+               .andExpect(jsonPath("$.maximumWeightBytes").value(16 * 1024 * 1024))
+               .andExpect(jsonPath("$.maximumSize").doesNotExist());
+
+        mockMvc.perform(put("/cars/cache-admin/brandPageCache").param("maximumWeight", "8MB")
+                                                               .param("expireAfterWrite", "30s"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.maximumWeightBytes").value(8 * 1024 * 1024));
+        mockMvc.perform(get("/cars/cache-admin/brandPageCache"))
+               .andExpect(jsonPath("$.maximumWeightBytes").value(8 * 1024 * 1024));
+    }
+
+    @Test
+    void cacheAdminRejectsABoundTheCacheWasNotBuiltWith() throws Exception {
+        mockMvc.perform(put("/cars/cache-admin/brandPageCache").param("maximumSize", "10"))
+               .andExpect(status().isBadRequest())
+               .andExpect(content().string(containsString("maximumSize")));
+        mockMvc.perform(put("/cars/cache-admin/brandPageCache").param("refreshAfterWrite", "1s"))
+               .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cacheAdminAppliesNothingWhenAnySettingIsRejected() throws Exception {
+        mockMvc.perform(put("/cars/cache-admin/pricePageCache").param("expireAfterWrite", "30s")
+                                                               .param("refreshAfterWrite", "1s"))
+               .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/cars/cache-admin/pricePageCache"))
+               .andExpect(jsonPath("$.expireAfterWrite").value("PT2S"));
+    }
+
+    @Test
+    void cacheAdminAnswersNotFoundForAnUnknownCache() throws Exception {
+        mockMvc.perform(get("/cars/cache-admin/noSuchCache")).andExpect(status().isNotFound());
+        mockMvc.perform(put("/cars/cache-admin/noSuchCache").param("maximumSize", "10"))
+               .andExpect(status().isNotFound());
+    }
+}
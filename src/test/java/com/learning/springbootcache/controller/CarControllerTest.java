@@ -0,0 +1,64 @@
+package com.learning.springbootcache.controller;
+
+import com.learning.springbootcache.cache.NativeCaches;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext
+class CarControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("brandFilterCacheManager")
+    CacheManager brandFilterCacheManager;
+
+    @Test
+    void batchBrandLookupAnswersEveryBrandAndCachesThem() throws Exception {
+        mockMvc.perform(get("/cars").param("brands", "VW,Fiat,Opel"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.VW[*].model", contains("Golf", "Golf")))
+               .andExpect(jsonPath("$.Fiat", empty()))
+               .andExpect(jsonPath("$.Opel[*].model", contains("Astra", "Insignia")));
+
+        assertThat(brandFilterCache()).containsKeys("VW", "Fiat", "Opel");
+    }
+
+    @Test
+    void batchEvictAndUpdateChangeOnlyTheGivenBrands() throws Exception {
+        mockMvc.perform(get("/cars").param("brands", "VW,Opel,Lamborghini")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/cars/evictBrandFilterCache").param("brands", "VW", "Opel"))
+               .andExpect(status().isNoContent());
+        assertThat(brandFilterCache()).containsKey("Lamborghini").doesNotContainKeys("VW", "Opel");
+
+        mockMvc.perform(put("/cars/updateBrandFilterCache").contentType(MediaType.APPLICATION_JSON)
+                                                            .content("[\"VW\"]"))
+               .andExpect(status().isNoContent());
+        assertThat(brandFilterCache()).containsKeys("VW", "Lamborghini").doesNotContainKey("Opel");
+    }
+
+    private Map<Object, Object> brandFilterCache() {
+        return NativeCaches.caffeine(brandFilterCacheManager.getCache("brandFilterCache")).orElseThrow().asMap();
+    }
+}
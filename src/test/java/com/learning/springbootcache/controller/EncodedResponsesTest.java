@@ -0,0 +1,108 @@
+package com.learning.springbootcache.controller;
+
+import com.learning.springbootcache.cache.EncodedResponseCache;
+import com.learning.springbootcache.cache.PriceRange;
+import com.learning.springbootcache.dto.Car;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.cache.encoded-responses.enabled=true",
+        "app.cache.encoded-responses.gzip-min-size=0"
+})
+@AutoConfigureMockMvc
+@DirtiesContext
+class EncodedResponsesTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EncodedResponseCache encodedResponseCache;
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWithNotModified() throws Exception {
+        final String etag = mockMvc.perform(get("/cars").param("brand", "VW"))
+                                   .andExpect(status().isOk())
+                                   .andExpect(header().exists(HttpHeaders.ETAG))
+                                   .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                                   .andReturn()
+                                   .getResponse()
+                                   .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/cars").param("brand", "VW").header(HttpHeaders.IF_NONE_MATCH, etag))
+               .andExpect(status().isNotModified());
+        mockMvc.perform(get("/cars").param("brand", "VW").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void gzipIsServedOnlyWhenAcceptedWithAPositiveQuality() throws Exception {
+        final byte[] json = mockMvc.perform(get("/cars").param("brand", "Opel"))
+                                   .andReturn()
+                                   .getResponse()
+                                   .getContentAsByteArray();
+
+        final MvcResult gzipped = mockMvc.perform(get("/cars").param("brand", "Opel")
+                                                              .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip"))
+                                         .andExpect(status().isOk())
+                                         .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                                         .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                                         .andReturn();
+        assertThat(gunzip(gzipped.getResponse().getContentAsByteArray())).isEqualTo(json);
+
+        mockMvc.perform(get("/cars").param("brand", "Opel").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+               .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get("/cars").param("brand", "Opel").header(HttpHeaders.ACCEPT_ENCODING, "br, *;q=0.5"))
+               .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    void acceptEncodingQualitiesArePrecise() {
+        assertThat(CarController.acceptsGzip(null)).isFalse();
+        assertThat(CarController.acceptsGzip(new String[] { "GZIP" })).isTrue();
+        assertThat(CarController.acceptsGzip(new String[] { "br", "gzip; Q=0.1" })).isTrue();
+        assertThat(CarController.acceptsGzip(new String[] { "gzip;q=0.0, *" })).isFalse();
+        assertThat(CarController.acceptsGzip(new String[] { "br, *;q=0" })).isFalse();
+        assertThat(CarController.acceptsGzip(new String[] { "gzip;q=x" })).isFalse();
+        assertThat(CarController.acceptsGzip(new String[] { "x-gzipped" })).isFalse();
+    }
+
+    @Test
+    void encodingIsReusedForTheSameCarsUnderTheSameKey() {
+        final Car golf = Car.builder().id(1L).model("Golf").brand("VW").horses(110).price(20_000d).build();
+        final Car polo = Car.builder().id(2L).model("Polo").brand("VW").horses(80).price(15_000d).build();
+        final PriceRange key = new PriceRange(10_000, 30_000);
+
+        final EncodedResponseCache.EncodedBody body = encodedResponseCache.get(key, List.of(polo, golf));
+
+        assertThat(encodedResponseCache.get(key, new ArrayList<>(List.of(polo, golf)))).isSameAs(body);
+        assertThat(encodedResponseCache.get(key, List.of(golf, polo))).isNotSameAs(body);
+        final Car newGolf = Car.builder().id(1L).model("Golf").brand("VW").horses(150).price(20_000d).build();
+        assertThat(encodedResponseCache.get(key, List.of(polo, newGolf)).etag()).isNotEqualTo(body.etag());
+    }
+
+    private static byte[] gunzip(final byte[] gzip) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.learning.springbootcache.repository;
+
+import com.learning.springbootcache.dto.Car;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CarRepositoryTest {
+
+    static Stream<Supplier<CarRepository>> backends() {
+        return Stream.of(IndexedCarRepository::new, ColumnarCarRepository::new);
+    }
+
+    @ParameterizedTest
+    @MethodSource("backends")
+    void concurrentSavesGetUniqueSequentialIds(final Supplier<CarRepository> backend) throws InterruptedException {
+        final CarRepository repository = backend.get();
+        final int seeded = repository.count();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 10_000; i++) {
+            executor.execute(() -> repository.save(new Car(null, "Model", "Brand", 100, 10_000d)));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        final List<Car> all = repository.findAll();
+        assertThat(all).hasSize(seeded + 10_000);
+        for (int i = 0; i < all.size(); i++) {
+            assertThat(all.get(i).getId()).isEqualTo(i + 1L);
+        }
+        assertThat(repository.findById(42L)).get().usingRecursiveComparison().isEqualTo(all.get(41));
+    }
+
+    @ParameterizedTest
+    @MethodSource("backends")
+    void snapshotIsNotAffectedByLaterSaves(final Supplier<CarRepository> backend) {
+        final CarRepository repository = backend.get();
+        final List<Car> before = repository.findAll();
+
+        repository.save(new Car(null, "Corsa", "Opel", 75, 12_000d));
+
+        assertThat(before).hasSize(repository.count() - 1);
+    }
+
+    @ParameterizedTest
+    @MethodSource("backends")
+    void brandAndPriceQueries(final Supplier<CarRepository> backend) {
+        final CarRepository repository = backend.get();
+        final Car corsa = repository.save(new Car(null, "Corsa", "Opel", 75, 12_000d));
+
+        assertThat(repository.findByBrand("Opel")).extracting(Car::getModel)
+                                                  .containsExactly("Astra", "Insignia", "Corsa");
+        assertThat(repository.findByBrand("Fiat")).isEmpty();
+        assertThat(repository.findByPriceBetween(12_000d, 19_000d)).extracting(Car::getPrice)
+                                                                  .containsExactly(12_000d, 17_000d, 18_000d, 19_000d);
+        assertThat(repository.findByPriceBetween(12_000d, 12_000d)).singleElement()
+                                                                   .usingRecursiveComparison()
+                                                                   .isEqualTo(corsa);
+        assertThat(repository.findByPriceBetween(20_000d, 10_000d)).isEmpty();
+        assertThat(repository.findByBrands(List.of("VW", "Fiat", "Opel"))).containsOnlyKeys("VW", "Fiat", "Opel")
+                                                                           .extractingByKey("Opel")
+                                                                           .asList()
+                                                                           .hasSize(3);
+    }
+
+    @ParameterizedTest
+    @MethodSource("backends")
+    void pagesWalkTheFullResultWithoutGapsOrRepeats(final Supplier<CarRepository> backend) {
+        final CarRepository repository = backend.get();
+        repository.save(new Car(null, "Corsa", "Opel", 75, 18_000d));
+        repository.save(new Car(null, "Mokka", "Opel", 130, 18_000d));
+        repository.save(new Car(null, "Ampera", "Opel", 150, null));
+
+        final List<Car> pricePages = new ArrayList<>();
+        List<Car> page = repository.findByPriceBetweenAfter(0d, 50_000d, Double.NEGATIVE_INFINITY, 0L, 2);
+        while (!page.isEmpty()) {
+            assertThat(page).hasSizeLessThanOrEqualTo(2);
+            pricePages.addAll(page);
+            final Car last = page.get(page.size() - 1);
+            page = repository.findByPriceBetweenAfter(0d, 50_000d, last.getPrice(), last.getId(), 2);
+        }
+        assertThat(pricePages).usingRecursiveFieldByFieldElementComparator()
+                              .containsExactlyElementsOf(repository.findByPriceBetween(0d, 50_000d));
+        assertThat(pricePages).extracting(Car::getPrice).doesNotContainNull();
+
+        final List<Car> brandPages = new ArrayList<>();
+        page = repository.findByBrandAfter("Opel", 0L, 2);
+        while (!page.isEmpty()) {
+            brandPages.addAll(page);
+            page = repository.findByBrandAfter("Opel", page.get(page.size() - 1).getId(), 2);
+        }
+        assertThat(brandPages).usingRecursiveFieldByFieldElementComparator()
+                              .containsExactlyElementsOf(repository.findByBrand("Opel"));
+
+        final List<Car> streamed = new ArrayList<>();
+        repository.forEachByBrand("Opel", streamed::add);
+        assertThat(streamed).extracting(Car::getModel).containsExactly("Astra", "Insignia", "Corsa", "Mokka", "Ampera");
+    }
+}
@@ -0,0 +1,132 @@
+package com.learning.springbootcache.service;
+
+import com.learning.springbootcache.cache.BrandPageKey;
+import com.learning.springbootcache.cache.NativeCaches;
+import com.learning.springbootcache.cache.PricePageKey;
+import com.learning.springbootcache.cache.PriceRange;
+import com.learning.springbootcache.dto.Car;
+import com.learning.springbootcache.repository.CarRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+@DirtiesContext
+class CarServiceTest {
+
+    @Autowired
+    CarService carService;
+
+    @Autowired
+    @Qualifier("brandFilterCacheManager")
+    CacheManager brandFilterCacheManager;
+
+    @Autowired
+    @Qualifier("priceFilterCacheManager")
+    CacheManager priceFilterCacheManager;
+
+    @SpyBean
+    CarRepository carRepository;
+
+    @Test
+    void cacheManagersAreInjectedByQualifier() {
+        final CarService target = AopTestUtils.getUltimateTargetObject(carService);
+
+        assertThat(ReflectionTestUtils.getField(target, "brandFilterCacheManager")).isSameAs(brandFilterCacheManager);
+        assertThat(ReflectionTestUtils.getField(target, "priceFilterCacheManager")).isSameAs(priceFilterCacheManager);
+    }
+
+    @Test
+    void createEvictsOnlyItsBrandAndThePriceRangesContainingIt() {
+        carService.getCarsWithBrandFilter("Opel");
+        carService.getCarsWithBrandFilter("VW");
+        carService.getCarsWithPriceFilter(17_000d, 19_000d);
+        carService.getCarsWithPriceFilter(90_000d, 110_000d);
+
+        carService.create(new Car(null, "Corsa", "Opel", 75, 18_500d));
+
+        assertThat(nativeMap(brandFilterCacheManager, "brandFilterCache")).containsKey("VW").doesNotContainKey("Opel");
+        assertThat(nativeMap(priceFilterCacheManager, "priceFilterCache"))
+                .containsKey(new PriceRange(90_000d, 110_000d))
+                .doesNotContainKey(new PriceRange(17_000d, 19_000d));
+        assertThat(carService.getCarsWithBrandFilter("Opel")).extracting(Car::getModel).contains("Corsa");
+        assertThat(carService.getCarsWithPriceFilter(17_000d, 19_000d)).extracting(Car::getModel).contains("Corsa");
+    }
+
+    @Test
+    void createEvictsOnlyThePagesOfItsBrandAndPriceRanges() {
+        carService.getCarsWithBrandFilterPage("Opel", null, 1);
+        carService.getCarsWithBrandFilterPage("VW", null, 1);
+        carService.getCarsWithPriceFilterPage(17_000d, 19_000d, null, 1);
+        carService.getCarsWithPriceFilterPage(90_000d, 110_000d, null, 1);
+
+        carService.create(new Car(null, "Meriva", "Opel", 100, 18_000d));
+
+        assertThat(nativeMap(brandFilterCacheManager, "brandPageCache"))
+                .containsKey(new BrandPageKey("VW", null, 1))
+                .doesNotContainKey(new BrandPageKey("Opel", null, 1));
+        assertThat(nativeMap(priceFilterCacheManager, "pricePageCache"))
+                .containsKey(new PricePageKey(new PriceRange(90_000d, 110_000d), null, 1))
+                .doesNotContainKey(new PricePageKey(new PriceRange(17_000d, 19_000d), null, 1));
+    }
+
+    @Test
+    void createDuringABatchLoadIsNotOverwrittenByTheStaleList() throws Exception {
+        final CountDownLatch read = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch saved = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            final Object cars = invocation.callRealMethod();
+            if ("Dacia".equals(invocation.getArgument(0)) && read.getCount() > 0) {
+                read.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return cars;
+        }).when(carRepository).findByBrand("Dacia");
+        doAnswer(invocation -> {
+            final Object car = invocation.callRealMethod();
+            saved.countDown();
+            return car;
+        }).when(carRepository).save(any());
+
+        final CompletableFuture<Map<String, List<Car>>> batch =
+                CompletableFuture.supplyAsync(() -> carService.getCarsWithBrandFilters(List.of("Dacia")));
+        assertThat(read.await(5, TimeUnit.SECONDS)).isTrue();
+        final CompletableFuture<Car> create =
+                CompletableFuture.supplyAsync(() -> carService.create(new Car(null, "Logan", "Dacia", 90, 12_000d)));
+        assertThat(saved.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            create.get(200, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException waitingForTheLoad) {
+            // the eviction waits for the running load of the same key
+        }
+        release.countDown();
+        batch.get(5, TimeUnit.SECONDS);
+        create.get(5, TimeUnit.SECONDS);
+
+        assertThat(carService.getCarsWithBrandFilters(List.of("Dacia")).get("Dacia"))
+                .extracting(Car::getModel)
+                .containsExactly("Logan");
+    }
+
+    private static Map<Object, Object> nativeMap(final CacheManager cacheManager, final String name) {
+        return NativeCaches.caffeine(cacheManager.getCache(name)).orElseThrow().asMap();
+    }
+}
@@ -0,0 +1,66 @@
+package com.learning.springbootcache.util;
+
+import com.learning.springbootcache.service.CarService;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactKeyGeneratorTest {
+
+    private final CompactKeyGenerator generator = new CompactKeyGenerator();
+
+    private final Object target = new Object();
+
+    @Test
+    void equalParamsOfTheSameMethodGiveEqualKeys() throws NoSuchMethodException {
+        final Method page = pageMethod();
+
+        final Object key = generator.generate(target, page, 18_000d, 20_000d, null, 50);
+
+        assertThat(generator.generate(new Object(), page, 18_000d, 20_000d, null, 50)).isEqualTo(key)
+                                                                                      .hasSameHashCodeAs(key);
+        assertThat(generator.generate(target, page, 18_000d, 20_000d, "cursor", 50)).isNotEqualTo(key);
+        assertThat(generator.generate(target, page, 18_000d, 20_000d, null, 51)).isNotEqualTo(key);
+    }
+
+    @Test
+    void everyArityComparesItsParams() throws NoSuchMethodException {
+        final Method method = CarService.class.getMethod("getCarsWithBrandFilter", String.class);
+        final Object opel = generator.generate(target, method, "Opel");
+        final Object opelVw = generator.generate(target, method, "Opel", "VW");
+
+        assertThat(generator.generate(target, method)).isEqualTo(generator.generate(target, method));
+        assertThat(generator.generate(target, method, "Opel")).isEqualTo(opel).hasSameHashCodeAs(opel);
+        assertThat(generator.generate(target, method, "VW")).isNotEqualTo(opel);
+        assertThat(generator.generate(target, method, (Object) null)).isEqualTo(
+                generator.generate(target, method, (Object) null));
+        assertThat(generator.generate(target, method, "Opel", "VW")).isEqualTo(opelVw).hasSameHashCodeAs(opelVw);
+        assertThat(generator.generate(target, method, "VW", "Opel")).isNotEqualTo(opelVw);
+        assertThat(generator.generate(target, method, "Opel", null)).isNotEqualTo(opel);
+    }
+
+    @Test
+    void arrayParamsAreComparedByContent() throws NoSuchMethodException {
+        final Method method = pageMethod();
+
+        assertThat(generator.generate(target, method, new int[] { 1, 2 }, "a", "b")).isEqualTo(
+                generator.generate(target, method, new int[] { 1, 2 }, "a", "b"));
+        assertThat(generator.generate(target, method, new int[] { 1, 2 }, "a", "b")).isNotEqualTo(
+                generator.generate(target, method, new int[] { 2, 1 }, "a", "b"));
+    }
+
+    @Test
+    void sameParamsOfDifferentMethodsGiveDifferentKeys() throws NoSuchMethodException {
+        final Method brand = CarService.class.getMethod("getCarsWithBrandFilter", String.class);
+        final Method brands = CarService.class.getMethod("evictSpecificCaches", String.class);
+
+        assertThat(generator.generate(target, brand, "Opel")).isNotEqualTo(generator.generate(target, brands, "Opel"));
+    }
+
+    private static Method pageMethod() throws NoSuchMethodException {
+        return CarService.class.getMethod("getCarsWithPriceFilterPage", Double.class, Double.class, String.class,
+                int.class);
+    }
+}